@@ -0,0 +1,54 @@
+// k6 throughput benchmark for the bulk user import.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e ROWS=100000 -e FORMAT=ndjson load/bulk-import.js
+//
+// Signs in once, then posts a single generated body of ROWS users (NDJSON or CSV) and reports
+// rows per second. Usernames carry a per-run prefix so the script can be re-run against the
+// same database.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const ROWS = Number(__ENV.ROWS || 100000);
+const FORMAT = (__ENV.FORMAT || 'ndjson').toLowerCase();
+
+const rowsPerSecond = new Trend('import_rows_per_second');
+
+export const options = {
+    scenarios: {
+        import: { executor: 'shared-iterations', vus: 1, iterations: 1, maxDuration: '60m' },
+    },
+};
+
+function buildBody(prefix) {
+    const lines = FORMAT === 'csv' ? ['username,password'] : [];
+    for (let i = 0; i < ROWS; i++) {
+        const username = `${prefix}-${i}`;
+        lines.push(FORMAT === 'csv'
+            ? `${username},password-${i}`
+            : JSON.stringify({ username: username, password: `password-${i}` }));
+    }
+    return lines.join('\n');
+}
+
+export default function () {
+    const signIn = http.post(`${BASE_URL}/api/auth/signin`,
+        JSON.stringify({ username: __ENV.USERNAME || 'admin', password: __ENV.PASSWORD || 'adminpassword' }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(signIn, { 'signin 200': (r) => r.status === 200 });
+
+    const body = buildBody(`import-${Date.now()}`);
+    const res = http.post(`${BASE_URL}/api/users/import`, body, {
+        headers: {
+            Authorization: `Bearer ${signIn.json('token')}`,
+            'Content-Type': FORMAT === 'csv' ? 'text/csv' : 'application/x-ndjson',
+        },
+        timeout: '60m',
+    });
+    check(res, { 'import 200': (r) => r.status === 200 });
+
+    const report = res.json();
+    rowsPerSecond.add(report.imported / (res.timings.duration / 1000));
+    console.log(`imported=${report.imported} failed=${report.failed} seconds=${(res.timings.duration / 1000).toFixed(1)}`);
+}
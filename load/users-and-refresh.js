@@ -0,0 +1,53 @@
+// k6 load script comparing platform and virtual thread mode.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e USERNAME=admin -e PASSWORD=adminpassword load/users-and-refresh.js
+//
+// Each virtual user signs in once, then alternates paged user reads with refresh-token
+// rotation, always presenting the refresh token it received last.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export const options = {
+    scenarios: {
+        mixed: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 200),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+let session = null;
+
+function signIn() {
+    const res = http.post(`${BASE_URL}/api/auth/signin`,
+        JSON.stringify({ username: __ENV.USERNAME || 'admin', password: __ENV.PASSWORD || 'adminpassword' }),
+        { headers: JSON_HEADERS, tags: { name: 'signin' } });
+    check(res, { 'signin 200': (r) => r.status === 200 });
+    return res.status === 200 ? res.json() : null;
+}
+
+export default function () {
+    if (session === null) {
+        session = signIn();
+        if (session === null) {
+            return;
+        }
+    }
+
+    const users = http.get(`${BASE_URL}/api/users?page=0&size=20`, {
+        headers: { Authorization: `Bearer ${session.token}` },
+        tags: { name: 'users' },
+    });
+    check(users, { 'users 200': (r) => r.status === 200 });
+
+    const refreshed = http.post(`${BASE_URL}/api/auth/refresh`,
+        JSON.stringify({ refreshToken: session.refreshToken }),
+        { headers: JSON_HEADERS, tags: { name: 'refresh' } });
+    check(refreshed, { 'refresh 200': (r) => r.status === 200 });
+    session = refreshed.status === 200 ? refreshed.json() : null;
+}
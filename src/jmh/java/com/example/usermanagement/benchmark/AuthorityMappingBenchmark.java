@@ -0,0 +1,49 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.dto.UserDetailDto;
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.mapper.ApplicationMapper;
+import com.example.usermanagement.mapper.ApplicationMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-side authority resolution and the MapStruct conversions used by the user endpoints,
+ * across role/permission fan-outs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorityMappingBenchmark {
+
+    private final ApplicationMapper mapper = new ApplicationMapperImpl();
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> userGetAuthorities(UserFixture fixture) {
+        return fixture.user.getAuthorities();
+    }
+
+    @Benchmark
+    public UserDto toUserDto(UserFixture fixture) {
+        return mapper.toUserDto(fixture.user);
+    }
+
+    @Benchmark
+    public UserDetailDto toUserDetailDto(UserFixture fixture) {
+        return mapper.toUserDetailDto(fixture.user);
+    }
+}
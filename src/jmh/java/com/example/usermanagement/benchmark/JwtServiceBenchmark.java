@@ -0,0 +1,85 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuance and validation in {@link JwtService}. The user's role/permission fan-out
+ * matters for issuance in stateless mode, where the permissions become a token claim;
+ * {@code opaqueRefresh} switches refresh tokens from signed JWTs to random bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    @Param({"false", "true"})
+    public boolean opaqueRefresh;
+
+    private JwtService jwtService;
+    private String accessToken;
+    private String refreshToken;
+
+    @Setup
+    public void setUp(UserFixture fixture) {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", JwtVerificationBenchmark.SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604800000L);
+        ReflectionTestUtils.setField(jwtService, "statelessAuthEnabled", stateless);
+        ReflectionTestUtils.setField(jwtService, "opaqueRefreshTokens", opaqueRefresh);
+        jwtService.init();
+
+        accessToken = jwtService.generateToken(fixture.user);
+        refreshToken = jwtService.generateRefreshToken(fixture.user);
+    }
+
+    @Benchmark
+    public String generateToken(UserFixture fixture) {
+        return jwtService.generateToken(fixture.user);
+    }
+
+    @Benchmark
+    public String generateRefreshToken(UserFixture fixture) {
+        return jwtService.generateRefreshToken(fixture.user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(accessToken);
+    }
+
+    @Benchmark
+    public boolean isTokenValid(UserFixture fixture) {
+        return jwtService.isTokenValid(accessToken, fixture.user);
+    }
+
+    @Benchmark
+    public String computeRefreshTokenHash() {
+        return jwtService.computeRefreshTokenHash(refreshToken);
+    }
+
+    @Benchmark
+    public byte[] computeRefreshTokenDigest() {
+        return jwtService.computeRefreshTokenDigest(refreshToken);
+    }
+}
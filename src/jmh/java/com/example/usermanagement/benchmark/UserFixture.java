@@ -0,0 +1,59 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.entity.Permission;
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.entity.User;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A fully populated user entity with a configurable role/permission fan-out. Roles share
+ * half of their permissions with the previous role, as overlapping role definitions do in
+ * practice.
+ */
+@State(Scope.Benchmark)
+public class UserFixture {
+
+    @Param({"1", "3", "8"})
+    public int rolesPerUser;
+
+    @Param({"5", "25"})
+    public int permissionsPerRole;
+
+    public User user;
+
+    @Setup
+    public void setUp() {
+        Set<Role> roles = new HashSet<>();
+        int permissionId = 0;
+        for (int r = 0; r < rolesPerUser; r++) {
+            Role role = new Role();
+            role.setId(r + 1);
+            role.setName("ROLE_BENCH_" + r);
+            Set<Permission> permissions = new HashSet<>();
+            // Overlap with the previous role's upper half
+            int first = Math.max(0, permissionId - permissionsPerRole / 2);
+            for (int p = first; p < first + permissionsPerRole; p++) {
+                Permission permission = new Permission();
+                permission.setId(p + 1);
+                permission.setName("PERMISSION_" + p);
+                permissions.add(permission);
+                permissionId = Math.max(permissionId, p + 1);
+            }
+            role.setPermissions(permissions);
+            roles.add(role);
+        }
+
+        user = new User("bench.user", "$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0");
+        user.setId(42L);
+        user.setCreatedAt(Instant.now());
+        user.setUpdatedAt(Instant.now());
+        user.setRoles(roles);
+    }
+}
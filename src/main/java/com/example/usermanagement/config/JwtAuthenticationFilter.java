@@ -1,6 +1,8 @@
 package com.example.usermanagement.config;
 
+import com.example.usermanagement.service.AuthorityGraph;
 import com.example.usermanagement.service.JwtService;
+import com.example.usermanagement.service.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,6 +29,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final AuthorityGraph authorityGraph;
 
     @Override
     protected void doFilterInternal(
@@ -36,7 +39,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
+        final VerifiedToken token;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -44,11 +47,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         try {
             jwt = authHeader.substring(7);
-            username = jwtService.extractUsername(jwt);
+            token = jwtService.verify(jwt);
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (token.subject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // In stateless mode the verified claims are the source of truth; tokens issued
+                // before the mode was enabled carry no permissions and fall back to a user lookup.
+                UserDetails userDetails = jwtService.isStatelessAuthEnabled() ? authorityGraph.principalFor(token) : null;
+                if (userDetails == null) {
+                    userDetails = this.userDetailsService.loadUserByUsername(token.subject());
+                    if (!jwtService.isTokenValid(token, userDetails)) {
+                        userDetails = null;
+                    }
+                }
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -0,0 +1,81 @@
+package com.example.usermanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to read replicas. The application's
+ * {@link DataSource} becomes a {@link LazyConnectionDataSourceProxy} over the primary pool:
+ * the physical connection is only fetched at the first statement, once the transaction has
+ * marked it read-only, and read-only connections come from {@link ReplicaRoutingDataSource}.
+ * Everything else, including Flyway, JDBC writes and the streaming export, stays on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    ReplicaPool replicaPool(DataSourceProperties properties,
+                            @Value("${app.datasource.replicas.urls}") List<String> urls,
+                            @Value("${app.datasource.replicas.username:${spring.datasource.username}}") String username,
+                            @Value("${app.datasource.replicas.password:${spring.datasource.password}}") String password,
+                            @Value("${app.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+                            @Value("${app.datasource.replicas.max-lag-seconds:5}") long maxLagSeconds,
+                            @Value("${app.datasource.replicas.health-check-interval-ms:5000}") long checkIntervalMs,
+                            MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i).trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(replica.getPoolName(), replica);
+        }
+        ReplicaPool replicaPool = new ReplicaPool(replicas, maxLagSeconds, meterRegistry);
+        replicaPool.start(Duration.ofMillis(checkIntervalMs));
+        return replicaPool;
+    }
+
+    // Picked up by the auto-configured transaction manager as a TransactionExecutionListener
+    @Bean
+    ReadYourWritesTracker readYourWritesTracker(@Value("${app.datasource.replicas.read-your-writes-ms:5000}") long windowMs) {
+        return new ReadYourWritesTracker(Duration.ofMillis(windowMs));
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool,
+                          ReadYourWritesTracker readYourWritesTracker, MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaPool, readYourWritesTracker, meterRegistry));
+        return dataSource;
+    }
+}
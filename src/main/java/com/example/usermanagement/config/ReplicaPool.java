@@ -0,0 +1,169 @@
+package com.example.usermanagement.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read replica connection pools and their last observed health. A replica takes reads
+ * only while its last check succeeded with a replication lag of at most {@code maxLagSeconds};
+ * until the first check completes, and whenever no replica qualifies, reads go to the primary.
+ * Checks run on the pool's own thread rather than the shared {@code @Scheduled} one, so a
+ * long sweep or graph rebuild there cannot leave a lagging replica in rotation.
+ */
+@Slf4j
+public class ReplicaPool implements AutoCloseable {
+
+    // MySQL 8.0.22+; older servers only answer SHOW SLAVE STATUS / Seconds_Behind_Master
+    static final String STATUS_QUERY = "SHOW REPLICA STATUS";
+    static final String LAG_COLUMN = "Seconds_Behind_Source";
+    private static final int CHECK_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecks =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("replica-health").daemon(true).factory());
+
+    public ReplicaPool(Map<String, DataSource> replicas, long maxLagSeconds, MeterRegistry meterRegistry) {
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.maxLagSeconds = maxLagSeconds;
+        for (Replica replica : this.replicas) {
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("replica", replica.name)
+                    .baseUnit("seconds")
+                    .description("Replication lag at the last health check (NaN when unknown)")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("datasource.replicas.healthy", this, ReplicaPool::healthyCount)
+                .description("Replicas currently taking read-only traffic")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The next healthy replica in round-robin order, or {@code null} when there is none.
+     */
+    Replica select() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take a replica out of rotation until its next successful check, e.g. after it refused a connection.
+     */
+    void markUnhealthy(Replica replica, Exception cause) {
+        update(replica, Double.NaN, "connection failed: " + cause.getMessage());
+    }
+
+    /**
+     * Check every replica now and then {@code interval} after each round completes.
+     */
+    public void start(Duration interval) {
+        healthChecks.scheduleWithFixedDelay(() -> {
+            try {
+                checkHealth();
+            } catch (RuntimeException e) {
+                // An escaping exception would cancel all further checks
+                log.error("Read replica health check failed", e);
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            check(replica);
+        }
+    }
+
+    private void check(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(CHECK_TIMEOUT_SECONDS);
+            try (ResultSet status = statement.executeQuery(STATUS_QUERY)) {
+                if (!status.next()) {
+                    // Not replicating at all: a standalone instance standing in for a replica locally
+                    update(replica, 0, null);
+                    return;
+                }
+                long lag = status.getLong(LAG_COLUMN);
+                if (status.wasNull()) {
+                    update(replica, Double.NaN, "replication is not running");
+                } else if (lag > maxLagSeconds) {
+                    update(replica, lag, "lag of " + lag + "s exceeds " + maxLagSeconds + "s");
+                } else {
+                    update(replica, lag, null);
+                }
+            }
+        } catch (SQLException e) {
+            update(replica, Double.NaN, "health check failed: " + e.getMessage());
+        }
+    }
+
+    private void update(Replica replica, double lagSeconds, String problem) {
+        boolean healthy = problem == null;
+        replica.lagSeconds = lagSeconds;
+        if (replica.healthy != healthy) {
+            if (healthy) {
+                log.info("Read replica {} is back in rotation (lag {}s)", replica.name, (long) lagSeconds);
+            } else {
+                log.warn("Read replica {} taken out of rotation: {}", replica.name, problem);
+            }
+        }
+        replica.healthy = healthy;
+    }
+
+    private int healthyCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() throws IOException {
+        healthChecks.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        DataSource dataSource() {
+            return dataSource;
+        }
+    }
+}
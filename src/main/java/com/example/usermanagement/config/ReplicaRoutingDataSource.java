@@ -0,0 +1,61 @@
+package com.example.usermanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * Hands out connections for read-only work: from a healthy replica, or from the primary when
+ * the caller wrote recently, no replica is healthy, or the chosen replica refuses a connection.
+ * Only used as the read-only target of a {@code LazyConnectionDataSourceProxy}, which decides
+ * read-only versus read-write from the transaction's flag before the first statement runs.
+ */
+class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaPool replicaPool;
+    private final ReadYourWritesTracker readYourWrites;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    ReplicaRoutingDataSource(DataSource primary, ReplicaPool replicaPool, ReadYourWritesTracker readYourWrites,
+                             MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicaPool = replicaPool;
+        this.readYourWrites = readYourWrites;
+        this.replicaReads = Counter.builder("datasource.reads")
+                .tag("target", "replica")
+                .description("Read-only connections served by a replica")
+                .register(meterRegistry);
+        this.primaryReads = Counter.builder("datasource.reads")
+                .tag("target", "primary")
+                .description("Read-only connections served by the primary")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ReplicaPool.Replica replica = readYourWrites.isPinnedToPrimary() ? null : replicaPool.select();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource().getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replicaPool.markUnhealthy(replica, e);
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica routing only serves the pools' configured credentials");
+    }
+}
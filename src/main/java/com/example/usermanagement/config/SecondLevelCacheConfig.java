@@ -0,0 +1,90 @@
+package com.example.usermanagement.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import javax.cache.expiry.EternalExpiryPolicy;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM-local Hibernate second-level cache for the small, rarely written role and permission
+ * tables, plus the query cache for their {@code findByName} lookups. Writes made through
+ * Hibernate invalidate the affected entries on this instance; the TTL bounds how long a
+ * change made on another instance can go unseen. Hit/miss/put counts are published as
+ * {@code hibernate.second.level.cache.*} and {@code hibernate.query.cache.*} meters.
+ * <p>
+ * Disabling it must be explicit: with {@code hibernate-jcache} on the classpath Hibernate
+ * would otherwise pick it up on its own and build unbounded, never-expiring regions.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final String ENABLED_PROPERTY = "app.jpa.second-level-cache.enabled";
+
+    public static final String ROLES_REGION = "roles";
+    public static final String PERMISSIONS_REGION = "permissions";
+    public static final String ROLE_PERMISSIONS_REGION = "roles.permissions";
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = ENABLED_PROPERTY, havingValue = "true", matchIfMissing = true)
+    CacheManager hibernateCacheManager(@Value("${app.jpa.second-level-cache.ttl-seconds:60}") long ttlSeconds,
+                                       @Value("${app.jpa.second-level-cache.maximum-size:10000}") long maximumSize) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-second-level-cache"), getClass().getClassLoader());
+        for (String region : List.of(ROLES_REGION, PERMISSIONS_REGION, ROLE_PERMISSIONS_REGION, QUERY_RESULTS_REGION)) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            configuration.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.SECONDS, ttlSeconds)));
+            createIfAbsent(cacheManager, region, configuration);
+        }
+        // Table modification timestamps decide whether cached query results are still valid; they must never expire
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setExpiryPolicyFactory(EternalExpiryPolicy.factoryOf());
+        createIfAbsent(cacheManager, UPDATE_TIMESTAMPS_REGION, timestamps);
+        return cacheManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED_PROPERTY, havingValue = "true", matchIfMissing = true)
+    HibernatePropertiesCustomizer secondLevelCacheProperties(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // Required for the hibernate.* cache meters
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED_PROPERTY, havingValue = "false")
+    HibernatePropertiesCustomizer secondLevelCacheDisabledProperties() {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+        };
+    }
+
+    private static void createIfAbsent(CacheManager cacheManager, String region, CaffeineConfiguration<Object, Object> configuration) {
+        if (cacheManager.getCache(region) == null) {
+            cacheManager.createCache(region, configuration);
+        }
+    }
+}
@@ -2,12 +2,23 @@ package com.example.usermanagement.controller;
 
 import com.example.usermanagement.dto.CreateRoleRequest;
 import com.example.usermanagement.dto.CreatePermissionRequest;
+import com.example.usermanagement.dto.CursorPage;
+import com.example.usermanagement.dto.ErrorResponse;
 import com.example.usermanagement.dto.RoleDetailDto;
 import com.example.usermanagement.dto.PermissionDto;
 import com.example.usermanagement.dto.RoleDto;
+import com.example.usermanagement.dto.RoleMembershipChangeRequest;
+import com.example.usermanagement.dto.RoleMembershipChangeResponse;
 import com.example.usermanagement.dto.UpdateRolePermissionsRequest;
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.service.RoleMembershipService;
 import com.example.usermanagement.service.RolePermissionService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -28,6 +39,7 @@ import java.util.List;
 public class RoleAdminController {
 
     private final RolePermissionService rolePermissionService;
+    private final RoleMembershipService roleMembershipService;
 
     @GetMapping("/roles")
     @Operation(summary = "Get all roles", description = "Retrieves a list of all roles and their assigned permissions.")
@@ -36,11 +48,26 @@ public class RoleAdminController {
     }
 
     @GetMapping("/roles/{id}/details")
-    @Operation(summary = "Get detailed role view by ID", description = "Retrieves a single role by its ID, including all permissions and users assigned to it.")
+    @Operation(summary = "Get detailed role view by ID", description = "Retrieves a single role by its ID, including all permissions and the number of users assigned to it. List the users with GET /api/admin/roles/{id}/users.")
     public ResponseEntity<RoleDetailDto> getRoleDetailsById(@PathVariable Integer id) {
         return ResponseEntity.ok(rolePermissionService.getRoleDetailsById(id));
     }
 
+    @GetMapping("/roles/{id}/users")
+    @Operation(summary = "List the users of a role (cursor-paginated)", description = "Retrieves the users holding a role in id order, in pages addressed by an opaque cursor. " +
+            "Deep pages cost the same as the first one and no total count is returned; see userCount in the role details.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of users"),
+            @ApiResponse(responseCode = "400", description = "Malformed cursor",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<CursorPage<UserDto>> getRoleMembers(
+            @PathVariable Integer id,
+            @Parameter(description = "The nextCursor of the previous page; omit for the first page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size, at most 100") @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(rolePermissionService.getRoleMembers(id, after, limit));
+    }
+
     @GetMapping("/permissions")
     @Operation(summary = "Get all permissions", description = "Retrieves a list of all available permissions in the system.")
     public ResponseEntity<List<PermissionDto>> getAllPermissions() {
@@ -60,6 +87,18 @@ public class RoleAdminController {
         return ResponseEntity.ok(rolePermissionService.updateRolePermissions(id, request));
     }
 
+    @PostMapping("/roles/{id}/users/assign")
+    @Operation(summary = "Assign a role to many users", description = "Adds the role to the listed users, or to every user holding the role named in 'inRole'. Users that already have it are left alone. Returns how many users were selected and how many changed.")
+    public ResponseEntity<RoleMembershipChangeResponse> assignRole(@PathVariable Integer id, @Valid @RequestBody RoleMembershipChangeRequest request) {
+        return ResponseEntity.ok(roleMembershipService.assign(id, request));
+    }
+
+    @PostMapping("/roles/{id}/users/revoke")
+    @Operation(summary = "Revoke a role from many users", description = "Removes the role from the listed users, or from every user holding the role named in 'inRole'. Returns how many users were selected and how many changed.")
+    public ResponseEntity<RoleMembershipChangeResponse> revokeRole(@PathVariable Integer id, @Valid @RequestBody RoleMembershipChangeRequest request) {
+        return ResponseEntity.ok(roleMembershipService.revoke(id, request));
+    }
+
     @PostMapping("/permissions")
     @Operation(summary = "Create a new permission", description = "Creates a new permission that can be assigned to roles.")
     public ResponseEntity<PermissionDto> createPermission(@Valid @RequestBody CreatePermissionRequest request) {
@@ -1,12 +1,21 @@
 package com.example.usermanagement.controller;
 
 import com.example.usermanagement.dto.CreateUserRequest;
+import com.example.usermanagement.dto.CursorPage;
 import com.example.usermanagement.dto.UpdateUserRolesRequest;
+import com.example.usermanagement.dto.UserBatchRequest;
 import com.example.usermanagement.dto.UpdateUserRequest;
 import com.example.usermanagement.dto.UserDetailDto;
 import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.dto.UserFilterParams;
+import com.example.usermanagement.dto.UserImportReport;
+import com.example.usermanagement.dto.UserLookupResult;
 import com.example.usermanagement.dto.ErrorResponse;
+import com.example.usermanagement.service.ImportFormat;
+import com.example.usermanagement.service.UserExportService;
+import com.example.usermanagement.service.UserImportService;
 import com.example.usermanagement.service.UserService;
+import com.example.usermanagement.service.UserSortOrder;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,13 +24,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/users")
@@ -30,6 +47,8 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
 
     @PostMapping
     @PreAuthorize("hasAuthority('CREATE_USER')")
@@ -45,15 +64,110 @@ public class UserController {
         return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('CREATE_USER')")
+    @Operation(summary = "Bulk import users (NDJSON)", description = "Creates users from a streamed body with one JSON object " +
+            "per line, shaped like the create-user request. Every user gets ROLE_USER. Invalid or duplicate rows are reported " +
+            "by line number and do not stop the import.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished; see the report for rejected rows"),
+            @ApiResponse(responseCode = "503", description = "Password hashing pool saturated",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<UserImportReport> importUsersNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(body, ImportFormat.NDJSON));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasAuthority('CREATE_USER')")
+    @Operation(summary = "Bulk import users (CSV)", description = "Creates users from a streamed CSV body whose header names the " +
+            "'username' and 'password' columns. Every user gets ROLE_USER. Invalid or duplicate rows are reported by line number " +
+            "and do not stop the import.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished; see the report for rejected rows"),
+            @ApiResponse(responseCode = "400", description = "Missing or incomplete CSV header",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<UserImportReport> importUsersCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(body, ImportFormat.CSV));
+    }
+
     @GetMapping
     @PreAuthorize("hasAuthority('READ_USERS')")
-    @Operation(summary = "Get all users (paginated)", description = "Retrieves a paginated list of all users.")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved list of users")
-    public ResponseEntity<Page<UserDto>> getAllUsers(@Parameter(hidden = true) Pageable pageable) {
-        Page<UserDto> users = userService.getAllUsers(pageable);
+    @Operation(summary = "Get all users (paginated)", description = "Retrieves a paginated list of all users. " +
+            "The role, permission, usernamePrefix, createdFrom and createdTo filters need pagination=cursor.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of users"),
+            @ApiResponse(responseCode = "400", description = "Filters given without pagination=cursor",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<Page<UserDto>> getAllUsers(@Parameter(hidden = true) Pageable pageable,
+                                                     @Parameter(hidden = true) UserFilterParams filter) {
+        Page<UserDto> users = userService.getAllUsers(pageable, filter.toFilter());
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping(params = "pagination=cursor")
+    @PreAuthorize("hasAuthority('READ_USERS')")
+    @Operation(summary = "Get all users (cursor-paginated)", description = "Retrieves users in pages addressed by an opaque cursor. " +
+            "Deep pages cost the same as the first one and no total count is returned. Select this mode with pagination=cursor.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of users"),
+            @ApiResponse(responseCode = "400", description = "Malformed cursor, unsupported order or empty creation range",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<CursorPage<UserDto>> getAllUsersByCursor(
+            @Parameter(description = "The nextCursor of the previous page; omit for the first page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size, at most 100") @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Sort key: 'id' or 'createdAt'") @RequestParam(defaultValue = "id") String orderBy,
+            @ParameterObject UserFilterParams filter) {
+        return ResponseEntity.ok(userService.getUsersAfter(after, limit, UserSortOrder.fromToken(orderBy), filter.toFilter()));
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('READ_USERS')")
+    @Operation(summary = "Export all users", description = "Streams every user with its role names as NDJSON, one user per line. " +
+            "The response is gzip-compressed when the client accepts gzip.")
+    @ApiResponse(responseCode = "200", description = "Export stream")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        // Written on the MVC async executor, not on the request thread
+        return response.body(out -> userExportService.export(out, gzip));
+    }
+
+    @GetMapping("/batch")
+    @PreAuthorize("hasAuthority('READ_USERS')")
+    @Operation(summary = "Get many users by ID", description = "Resolves up to 1000 user ids in one call. Results follow the order " +
+            "of the requested ids and ids without a user are returned with found=false.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully resolved the requested ids"),
+            @ApiResponse(responseCode = "400", description = "Too many ids requested",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<List<UserLookupResult>> getUsersByIds(
+            @Parameter(description = "Comma-separated user ids") @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(userService.getUsersByIds(ids));
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasAuthority('READ_USERS')")
+    @Operation(summary = "Get many users by ID (request body)", description = "Same as GET /api/users/batch, for id sets too large for a query string.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully resolved the requested ids"),
+            @ApiResponse(responseCode = "400", description = "No ids or too many ids requested",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<List<UserLookupResult>> getUsersByIds(@Valid @RequestBody UserBatchRequest request) {
+        return ResponseEntity.ok(userService.getUsersByIds(request.ids()));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('READ_USERS')")
     @Operation(summary = "Get a user by ID", description = "Retrieves a single user by their unique ID.")
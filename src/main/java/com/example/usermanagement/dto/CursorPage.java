@@ -0,0 +1,15 @@
+package com.example.usermanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "A page of results addressed by cursor instead of page number; no total count is computed")
+public record CursorPage<T>(
+        @Schema(description = "The items on this page")
+        List<T> items,
+        @Schema(description = "Opaque cursor for the next page, passed back as 'after'; null on the last page",
+                example = "aWR8NDI")
+        String nextCursor
+) {
+}
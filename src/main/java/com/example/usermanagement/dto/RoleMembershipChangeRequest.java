@@ -0,0 +1,24 @@
+package com.example.usermanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+
+import java.util.List;
+
+@Schema(description = "Request payload selecting the users whose membership in a role is changed: either explicit ids or every holder of another role")
+public record RoleMembershipChangeRequest(
+        @Schema(description = "User ids to change; ids of users that do not exist are ignored", example = "[1, 2, 3]")
+        List<Long> userIds,
+        @Schema(description = "Select every user currently holding this role instead of listing ids", example = "ROLE_USER")
+        String inRole
+) {
+
+    @JsonIgnore
+    @AssertTrue(message = "Specify exactly one of userIds or inRole")
+    public boolean isSingleSelector() {
+        boolean byIds = userIds != null && !userIds.isEmpty();
+        boolean byRole = inRole != null && !inRole.isBlank();
+        return byIds != byRole;
+    }
+}
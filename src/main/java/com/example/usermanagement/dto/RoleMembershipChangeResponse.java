@@ -0,0 +1,11 @@
+package com.example.usermanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a bulk role assignment or revocation")
+public record RoleMembershipChangeResponse(
+        @Schema(description = "Id of the role that was assigned or revoked", example = "3") Integer roleId,
+        @Schema(description = "Name of the role that was assigned or revoked", example = "ROLE_AUDITOR") String role,
+        @Schema(description = "Users selected by the request (distinct ids, or holders of the filter role)", example = "50000") long selected,
+        @Schema(description = "Users whose membership actually changed; users that already had (or lacked) the role are not counted", example = "49870") long changed
+) {}
@@ -0,0 +1,13 @@
+package com.example.usermanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+@Schema(description = "Request payload to look up many users by id in one call")
+public record UserBatchRequest(
+        @NotEmpty
+        @Schema(description = "User ids to resolve; results are returned in the same order", example = "[1, 2, 3]")
+        List<Long> ids
+) {}
@@ -0,0 +1,23 @@
+package com.example.usermanagement.dto;
+
+import com.example.usermanagement.repository.UserFilter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+@Schema(description = "Query parameters filtering a user listing; all given filters must match")
+public record UserFilterParams(
+        @Schema(description = "Only users holding this role", example = "ROLE_ADMIN") String role,
+        @Schema(description = "Only users granted this permission through any of their roles", example = "MANAGE_AUTHORIZATION") String permission,
+        @Schema(description = "Only users whose username starts with this text (case-insensitive)", example = "jo") String usernamePrefix,
+        @Schema(description = "Only users created at or after this instant", example = "2024-01-01T00:00:00Z")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdFrom,
+        @Schema(description = "Only users created before this instant", example = "2025-01-01T00:00:00Z")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdTo
+) {
+
+    public UserFilter toFilter() {
+        return new UserFilter(role, permission, usernamePrefix, createdFrom, createdTo);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.usermanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Outcome of a bulk user import; rows that fail are reported individually and do not abort the import")
+public record UserImportReport(
+        @Schema(description = "Number of data rows read, blank lines and the CSV header excluded", example = "100000") long rows,
+        @Schema(description = "Number of users created", example = "99998") long imported,
+        @Schema(description = "Number of rows rejected", example = "2") long failed,
+        @Schema(description = "Why rows were rejected, in input order") List<RowError> errors,
+        @Schema(description = "True if more rows failed than are listed in errors") boolean errorsTruncated
+) {
+
+    @Schema(description = "A rejected import row")
+    public record RowError(
+            @Schema(description = "1-based line number in the request body", example = "42") long line,
+            @Schema(description = "Username of the row, if it could be read", example = "john.doe") String username,
+            @Schema(description = "Why the row was rejected", example = "Username already exists") String message
+    ) {}
+}
@@ -0,0 +1,10 @@
+package com.example.usermanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of resolving one requested user id in a batch lookup")
+public record UserLookupResult(
+        @Schema(description = "The requested user id", example = "1") Long id,
+        @Schema(description = "Whether a user with this id exists") boolean found,
+        @Schema(description = "The user with roles and permissions; null when not found") UserDetailDto user
+) {}
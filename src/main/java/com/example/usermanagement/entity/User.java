@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.security.core.GrantedAuthority;
@@ -24,8 +25,23 @@ import java.util.stream.Collectors;
 @NoArgsConstructor
 public class User implements UserDetails {
 
+    /**
+     * Ids handed out per round trip to {@code id_generators}; JDBC writers that allocate user
+     * ids themselves ({@code UserIdAllocator}) must reserve blocks of the same size.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * First id of the {@code AUTO_INCREMENT} range (V16) still used by writers that do not
+     * supply an id, e.g. the previous version during a rolling deploy. Pooled ids stay below it.
+     */
+    public static final long AUTO_INCREMENT_FLOOR = 1_000_000_000_000L;
+
+    // Allocated by the application in pooled blocks instead of IDENTITY, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_ids")
+    @TableGenerator(name = "user_ids", table = "id_generators", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "users", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -42,19 +58,10 @@ public class User implements UserDetails {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
-    @Column(name = "refresh_token")
-    private String refreshToken;
-
-    @Column(name = "refresh_token_expiry")
-    private Instant refreshTokenExpiry;
-
-    // New column: store only the hash of the refresh token (HMAC-SHA256 or SHA-256)
-    // We keep the old `refreshToken` column for compatibility during rollout but
-    // the application will read/write `refreshTokenHash` after migration V10.
-    @Column(name = "refresh_token_hash")
-    private String refreshTokenHash;
-
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Lazy: listings never need roles. Reads that do declare an entity graph on the repository method;
+    // any remaining lazy loads are batched so a page of users costs one roles query, not one per user.
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
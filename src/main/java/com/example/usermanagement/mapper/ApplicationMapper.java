@@ -1,7 +1,6 @@
 package com.example.usermanagement.mapper;
 
 import com.example.usermanagement.dto.PermissionDto;
-import com.example.usermanagement.dto.RoleDetailDto;
 import com.example.usermanagement.dto.RoleDto;
 import com.example.usermanagement.dto.UserDetailDto;
 import com.example.usermanagement.dto.UserDto;
@@ -16,7 +15,6 @@ public interface ApplicationMapper {
     UserDto toUserDto(User user);
     UserDetailDto toUserDetailDto(User user);
     RoleDto toRoleDto(Role role);
-    RoleDetailDto toRoleDetailDto(Role role);
     PermissionDto toPermissionDto(Permission permission);
 
 }
\ No newline at end of file
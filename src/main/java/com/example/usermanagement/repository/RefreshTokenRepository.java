@@ -0,0 +1,50 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.entity.RefreshToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    /**
+     * Rotate a session to a new token in one conditional UPDATE. Only the caller presenting
+     * the current, unexpired token wins; a replayed or concurrently rotated token matches no row.
+     *
+     * @return the number of rows updated (0 or 1)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken t SET t.tokenHash = :newHash, t.expiresAt = :expiresAt " +
+            "WHERE t.tokenHash = :currentHash AND t.expiresAt > :now")
+    int rotate(@Param("currentHash") byte[] currentHash, @Param("newHash") byte[] newHash,
+               @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    /**
+     * Next batch of expired sessions, oldest first, read from the expiry index.
+     */
+    @Query("SELECT t.id FROM RefreshToken t WHERE t.expiresAt < :cutoff ORDER BY t.expiresAt, t.id")
+    List<Long> findExpiredIds(@Param("cutoff") Instant cutoff, Pageable batch);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
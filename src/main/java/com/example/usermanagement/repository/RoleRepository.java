@@ -1,12 +1,32 @@
 package com.example.usermanagement.repository;
 
 import com.example.usermanagement.entity.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Integer> {
+    // Served from the query cache; invalidated when the table is written through Hibernate
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(String name);
+
+    List<Role> findByNameIn(Collection<String> names);
+
+    // Answered from the user_roles role_id index alone
+    @Query(value = "SELECT COUNT(*) FROM user_roles WHERE role_id = :roleId", nativeQuery = true)
+    long countUsers(@Param("roleId") Integer roleId);
+
+    @EntityGraph(attributePaths = "permissions")
+    @Query("SELECT r FROM Role r")
+    List<Role> findAllWithPermissions();
 }
\ No newline at end of file
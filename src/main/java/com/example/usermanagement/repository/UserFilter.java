@@ -0,0 +1,32 @@
+package com.example.usermanagement.repository;
+
+import java.time.Instant;
+
+/**
+ * Criteria for a filtered user listing; {@code null} components do not filter. All given
+ * criteria must match.
+ *
+ * @param role           name of a role the user holds
+ * @param permission     name of a permission the user holds through any of their roles
+ * @param usernamePrefix case-insensitive (per the column collation) start of the username
+ * @param createdFrom    inclusive lower bound on the creation time
+ * @param createdTo      exclusive upper bound on the creation time
+ */
+public record UserFilter(String role, String permission, String usernamePrefix, Instant createdFrom, Instant createdTo) {
+
+    public static final UserFilter NONE = new UserFilter(null, null, null, null, null);
+
+    public UserFilter {
+        role = blankToNull(role);
+        permission = blankToNull(permission);
+        usernamePrefix = blankToNull(usernamePrefix);
+    }
+
+    public boolean isEmpty() {
+        return role == null && permission == null && usernamePrefix == null && createdFrom == null && createdTo == null;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -1,14 +1,74 @@
 package com.example.usermanagement.repository;
 
+import com.example.usermanagement.dto.UserDto;
 import com.example.usermanagement.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Authentication resolves grants from the roles; permissions are included for roles newer than the authority snapshot
+    @EntityGraph(attributePaths = {"roles", "roles.permissions"})
     Optional<User> findByUsername(String username);
-    Optional<User> findByRefreshToken(String refreshToken);
-    Optional<User> findByRefreshTokenHash(String refreshTokenHash);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"roles", "roles.permissions"})
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findWithRolesById(@Param("id") Long id);
+
+    @Query("SELECT u.username FROM User u WHERE u.id = :id")
+    Optional<String> findUsernameById(@Param("id") Long id);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    // Permissions are deliberately not fetched: batch lookups resolve them from the authority snapshot
+    @EntityGraph(attributePaths = "roles")
+    @Query("SELECT u FROM User u WHERE u.id IN :ids")
+    List<User> findWithRolesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT new com.example.usermanagement.dto.UserDto(u.id, u.username, u.createdAt, u.updatedAt) FROM User u",
+            countQuery = "SELECT count(u) FROM User u")
+    Page<UserDto> findAllAsDto(Pageable pageable);
+
+    // Keyset pagination: each page is an index seek past the last row of the previous one.
+    // Projected straight into UserDto so no entity (and no role collection) is loaded.
+
+    @Query("SELECT new com.example.usermanagement.dto.UserDto(u.id, u.username, u.createdAt, u.updatedAt) " +
+            "FROM User u ORDER BY u.id")
+    List<UserDto> findPageOrderById(Pageable window);
+
+    @Query("SELECT new com.example.usermanagement.dto.UserDto(u.id, u.username, u.createdAt, u.updatedAt) " +
+            "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserDto> findPageOrderByIdAfter(@Param("afterId") long afterId, Pageable window);
+
+    @Query("SELECT new com.example.usermanagement.dto.UserDto(u.id, u.username, u.createdAt, u.updatedAt) " +
+            "FROM User u ORDER BY u.createdAt, u.id")
+    List<UserDto> findPageOrderByCreatedAt(Pageable window);
+
+    @Query("SELECT new com.example.usermanagement.dto.UserDto(u.id, u.username, u.createdAt, u.updatedAt) " +
+            "FROM User u WHERE u.createdAt > :createdAt OR (u.createdAt = :createdAt AND u.id > :afterId) " +
+            "ORDER BY u.createdAt, u.id")
+    List<UserDto> findPageOrderByCreatedAtAfter(@Param("createdAt") Instant createdAt, @Param("afterId") long afterId,
+                                                Pageable window);
+
+    // Members of a role in id order, seeking the user_roles role_id index past the last id returned
+
+    @Query("SELECT new com.example.usermanagement.dto.UserDto(u.id, u.username, u.createdAt, u.updatedAt) " +
+            "FROM User u JOIN u.roles r WHERE r.id = :roleId ORDER BY u.id")
+    List<UserDto> findRoleMembersPage(@Param("roleId") Integer roleId, Pageable window);
+
+    @Query("SELECT new com.example.usermanagement.dto.UserDto(u.id, u.username, u.createdAt, u.updatedAt) " +
+            "FROM User u JOIN u.roles r WHERE r.id = :roleId AND u.id > :afterId ORDER BY u.id")
+    List<UserDto> findRoleMembersPageAfter(@Param("roleId") Integer roleId, @Param("afterId") long afterId, Pageable window);
+}
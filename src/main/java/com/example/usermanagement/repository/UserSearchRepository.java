@@ -0,0 +1,129 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.service.UserSortOrder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtered, keyset-paginated user listings: any combination of {@link UserFilter} criteria,
+ * built as one SQL statement. Role and permission criteria are semi-joins that MySQL can
+ * drive from the role or permission side through the reverse join table indexes (V15), and
+ * the username prefix and creation range are ranges on their own indexes. The shape of every
+ * combination is pinned by {@code UserSearchPlanIntegrationTest}.
+ * <p>
+ * With a filter, the index the listing is ordered by may not be used for ordering unless the
+ * filter itself ranges over it. Otherwise MySQL tends to walk that whole index for a small
+ * {@code LIMIT} and discard non-matching rows (EXPLAIN {@code type=index}). That is a full scan
+ * whenever matches are sparse or sit at the far end.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserSearchRepository {
+
+    private static final String SELECT = "SELECT u.id, u.username, u.created_at, u.updated_at FROM users u";
+    private static final String PRIMARY_INDEX = "PRIMARY";
+    private static final String CREATED_AT_INDEX = "idx_users_created_at_id";
+    private static final String HAS_ROLE = """
+            u.id IN (SELECT ur.user_id FROM user_roles ur
+                     JOIN roles r ON r.id = ur.role_id
+                     WHERE r.name = :role)""";
+    private static final String HAS_PERMISSION = """
+            u.id IN (SELECT pr.user_id FROM user_roles pr
+                     JOIN role_permissions rp ON rp.role_id = pr.role_id
+                     JOIN permissions p ON p.id = rp.permission_id
+                     WHERE p.name = :permission)""";
+
+    private static final RowMapper<UserDto> USER_DTO = (rs, rowNum) -> new UserDto(
+            rs.getLong("id"),
+            rs.getString("username"),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getTimestamp("updated_at").toInstant());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Up to {@code limit} matching users in {@code order}, starting after the given position.
+     *
+     * @param afterCreatedAt creation time of the last row of the previous page; only used for {@link UserSortOrder#CREATED_AT}
+     * @param afterId        id of the last row of the previous page, or {@code null} for the first page
+     */
+    public List<UserDto> findPage(UserFilter filter, UserSortOrder order, Instant afterCreatedAt, Long afterId, int limit) {
+        SearchSql search = toSql(filter, order, afterCreatedAt, afterId, limit);
+        return jdbcTemplate.query(search.sql(), search.parameters(), USER_DTO);
+    }
+
+    /**
+     * The statement {@link #findPage} runs for these arguments, e.g. to {@code EXPLAIN} it.
+     */
+    public SearchSql toSql(UserFilter filter, UserSortOrder order, Instant afterCreatedAt, Long afterId, int limit) {
+        List<String> conditions = new ArrayList<>();
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        if (filter.role() != null) {
+            conditions.add(HAS_ROLE);
+            parameters.addValue("role", filter.role());
+        }
+        if (filter.permission() != null) {
+            conditions.add(HAS_PERMISSION);
+            parameters.addValue("permission", filter.permission());
+        }
+        if (filter.usernamePrefix() != null) {
+            conditions.add("u.username LIKE :usernamePattern");
+            parameters.addValue("usernamePattern", escapeLike(filter.usernamePrefix()) + "%");
+        }
+        if (filter.createdFrom() != null) {
+            conditions.add("u.created_at >= :createdFrom");
+            parameters.addValue("createdFrom", Timestamp.from(filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            conditions.add("u.created_at < :createdTo");
+            parameters.addValue("createdTo", Timestamp.from(filter.createdTo()));
+        }
+
+        String orderBy;
+        if (order == UserSortOrder.CREATED_AT) {
+            if (afterId != null) {
+                conditions.add("(u.created_at > :afterCreatedAt OR (u.created_at = :afterCreatedAt AND u.id > :afterId))");
+                parameters.addValue("afterCreatedAt", Timestamp.from(afterCreatedAt));
+                parameters.addValue("afterId", afterId);
+            }
+            orderBy = " ORDER BY u.created_at, u.id";
+        } else {
+            if (afterId != null) {
+                conditions.add("u.id > :afterId");
+                parameters.addValue("afterId", afterId);
+            }
+            orderBy = " ORDER BY u.id";
+        }
+        parameters.addValue("limit", limit);
+
+        StringBuilder sql = new StringBuilder(SELECT);
+        String orderingIndex = order == UserSortOrder.CREATED_AT ? CREATED_AT_INDEX : PRIMARY_INDEX;
+        boolean filterRangesOverOrderingIndex = order == UserSortOrder.CREATED_AT
+                && (filter.createdFrom() != null || filter.createdTo() != null);
+        if (!filter.isEmpty() && !filterRangesOverOrderingIndex) {
+            sql.append(" IGNORE INDEX FOR ORDER BY (").append(orderingIndex).append(')');
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(orderBy).append(" LIMIT :limit");
+        return new SearchSql(sql.toString(), parameters);
+    }
+
+    // MySQL's default LIKE escape character is the backslash
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    public record SearchSql(String sql, MapSqlParameterSource parameters) {
+    }
+}
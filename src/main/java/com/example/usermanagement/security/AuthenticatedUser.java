@@ -0,0 +1,63 @@
+package com.example.usermanagement.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Immutable principal placed in the security context for bearer-token requests.
+ * Unlike the {@code User} entity it carries no JPA state, so it can be built straight
+ * from verified token claims without touching the database.
+ */
+@Getter
+public final class AuthenticatedUser implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final String password;
+    // Immutable and typically shared with every other principal holding the same roles
+    private final Collection<? extends GrantedAuthority> authorities;
+    // Same grants as a bitset for O(1) @PreAuthorize checks; may be null
+    private final PermissionBits permissionBits;
+    // Roles the grants were resolved from, empty when built from token claims
+    private final Set<Integer> roleIds;
+
+    public AuthenticatedUser(Long id, String username, String password,
+                             Collection<? extends GrantedAuthority> authorities, PermissionBits permissionBits) {
+        this(id, username, password, authorities, permissionBits, Set.of());
+    }
+
+    public AuthenticatedUser(Long id, String username, String password,
+                             Collection<? extends GrantedAuthority> authorities, PermissionBits permissionBits,
+                             Set<Integer> roleIds) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.authorities = authorities;
+        this.permissionBits = permissionBits;
+        this.roleIds = roleIds;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.service.PasswordHasher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Hands the authentication provider's encode/verify to the {@link PasswordHasher} pool, so
+ * only BCrypt runs there while the user lookup stays on the authenticating thread.
+ */
+public class HashingPoolPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordHasher passwordHasher;
+
+    public HashingPoolPasswordEncoder(PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return passwordHasher.encode(rawPassword.toString());
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return passwordHasher.matches(rawPassword, encodedPassword);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.usermanagement.security;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Granted permissions encoded as a bitset over the compact permission indexes of one
+ * authority snapshot. The index map is shared with that snapshot, so a principal built
+ * from an older snapshot keeps evaluating consistently after the graph is swapped.
+ */
+public final class PermissionBits {
+
+    private final Map<String, Integer> indexByName;
+    private final long[] words;
+
+    private PermissionBits(Map<String, Integer> indexByName, long[] words) {
+        this.indexByName = indexByName;
+        this.words = words;
+    }
+
+    /**
+     * @param indexByName dense permission indexes {@code 0..n-1}
+     */
+    public static PermissionBits of(Map<String, Integer> indexByName, Collection<String> permissionNames) {
+        long[] words = new long[(indexByName.size() + 63) >>> 6];
+        for (String name : permissionNames) {
+            Integer index = indexByName.get(name);
+            if (index != null) {
+                words[index >>> 6] |= 1L << index;
+            }
+        }
+        return new PermissionBits(indexByName, words);
+    }
+
+    /**
+     * @return the bit index of the permission, or {@code -1} if the name is not a known permission
+     */
+    public int indexOf(String permissionName) {
+        Integer index = indexByName.get(permissionName);
+        return index != null ? index : -1;
+    }
+
+    public boolean isSet(int index) {
+        int word = index >>> 6;
+        return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    /**
+     * Union of two bitsets built over the same index.
+     */
+    public PermissionBits or(PermissionBits other) {
+        long[] combined = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) {
+            combined[i] |= other.words[i];
+        }
+        return new PermissionBits(indexByName, combined);
+    }
+}
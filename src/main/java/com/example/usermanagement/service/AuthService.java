@@ -3,84 +3,140 @@ package com.example.usermanagement.service;
 import com.example.usermanagement.dto.RefreshTokenRequest;
 import com.example.usermanagement.dto.SignInRequest;
 import com.example.usermanagement.dto.SignInResponse;
-import com.example.usermanagement.entity.User;
+import com.example.usermanagement.entity.RefreshToken;
 import com.example.usermanagement.exception.UserNotFoundException;
 import com.example.usermanagement.exception.TokenRefreshException;
+import com.example.usermanagement.repository.RefreshTokenRepository;
 import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.security.AuthenticatedUser;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.UUID;
+import java.util.regex.Pattern;
 
+/**
+ * Sign-in and refresh-token lifecycle. Every sign-in opens a new session row in
+ * {@code refresh_tokens}; refresh rotates that row's token and logout deletes it, so a user
+ * can hold many concurrent sessions and token churn never writes to {@code users}.
+ */
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
+    // 32 random bytes, base64url without padding
+    private static final Pattern OPAQUE_TOKEN_SHAPE = Pattern.compile("[A-Za-z0-9_-]{43}");
+
+    private final RefreshTokenRepository refreshTokenRepository;
     private final UserRepository userRepository;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final UserDetailsService userDetailsService;
 
-    @Transactional
+    /**
+     * Not transactional: the password check (BCrypt) runs on the hashing pool without a
+     * connection held, the user is read once by the authentication provider on the calling
+     * thread and its principal reused, and only the session insert opens a short transaction.
+     *
+     * @throws com.example.usermanagement.exception.ServiceBusyException if the hashing pool is saturated
+     */
     public SignInResponse signIn(SignInRequest request) {
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.username(), request.password())
         );
-        User user = userRepository.findByUsername(request.username())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid email or password."));
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
 
         String accessToken = jwtService.generateToken(user);
         String refreshToken = jwtService.generateRefreshToken(user);
-        long expiresIn = jwtService.getJwtExpiration();
 
-        // Compute and persist only the hash of the refresh token
-        String refreshHash = jwtService.computeRefreshTokenHash(refreshToken);
-        user.setRefreshTokenHash(refreshHash);
-        user.setRefreshTokenExpiry(Instant.now().plusMillis(jwtService.getRefreshExpiration()));
-        // Optionally keep plaintext during rollout; consider removing in a later migration
-        user.setRefreshToken(null);
-        userRepository.save(user);
+        // Persist only the hash of the refresh token
+        refreshTokenRepository.save(new RefreshToken(user.getId(),
+                jwtService.computeRefreshTokenDigest(refreshToken),
+                UUID.randomUUID().toString(),
+                Instant.now().plusMillis(jwtService.getRefreshExpiration())));
 
-        return new SignInResponse(accessToken, "Bearer", expiresIn, refreshToken);
+        return new SignInResponse(accessToken, "Bearer", jwtService.getJwtExpiration(), refreshToken);
     }
 
-    @Transactional
     public SignInResponse refreshToken(RefreshTokenRequest request) {
-    String incoming = request.refreshToken();
-    String incomingHash = jwtService.computeRefreshTokenHash(incoming);
-    User user = userRepository.findByRefreshTokenHash(incomingHash)
-        .orElseThrow(() -> new TokenRefreshException("Refresh token not found."));
-
-        if (user.getRefreshTokenExpiry().isBefore(Instant.now())) {
-            user.setRefreshToken(null);
-            user.setRefreshTokenExpiry(null);
-            userRepository.save(user); // Persist the cleared token
+        String incoming = request.refreshToken();
+        // Reject forged, malformed or expired tokens before any DB work: JWTs by their
+        // signature, opaque tokens by their shape
+        VerifiedToken verified = null;
+        if (jwtService.isOpaqueRefreshToken(incoming)) {
+            if (!OPAQUE_TOKEN_SHAPE.matcher(incoming).matches()) {
+                throw new TokenRefreshException("Refresh token is invalid or has expired. Please sign in again.");
+            }
+        } else {
+            verified = verifyRefreshToken(incoming);
+        }
+        byte[] incomingHash = jwtService.computeRefreshTokenDigest(incoming);
+        RefreshToken session = refreshTokenRepository.findByTokenHash(incomingHash)
+                .orElseThrow(() -> new TokenRefreshException("Refresh token not found."));
+
+        Instant now = Instant.now();
+        if (session.getExpiresAt().isBefore(now)) {
+            refreshTokenRepository.deleteByTokenHash(incomingHash);
             throw new TokenRefreshException("Refresh token has expired. Please sign in again.");
         }
 
+        AuthenticatedUser user = verified != null
+                ? loadSessionOwner(verified.subject(), session)
+                : loadSessionOwner(session);
+
         // Generate new access and refresh tokens (Rotation)
         String newAccessToken = jwtService.generateToken(user);
         String newRefreshToken = jwtService.generateRefreshToken(user);
 
-        // Update the user's refresh token details in the database
-        String newRefreshHash = jwtService.computeRefreshTokenHash(newRefreshToken);
-        user.setRefreshTokenHash(newRefreshHash);
-        user.setRefreshTokenExpiry(Instant.now().plusMillis(jwtService.getRefreshExpiration()));
-        userRepository.save(user);
+        int rotated = refreshTokenRepository.rotate(incomingHash,
+                jwtService.computeRefreshTokenDigest(newRefreshToken),
+                now.plusMillis(jwtService.getRefreshExpiration()), now);
+        if (rotated == 0) {
+            // Another request rotated or revoked this session in the meantime
+            throw new TokenRefreshException("Refresh token has already been used.");
+        }
 
         return new SignInResponse(newAccessToken, "Bearer", jwtService.getJwtExpiration(), newRefreshToken);
     }
 
-    @Transactional
     public void logout(RefreshTokenRequest request) {
-    String incomingHash = jwtService.computeRefreshTokenHash(request.refreshToken());
-    User user = userRepository.findByRefreshTokenHash(incomingHash)
-        .orElseThrow(() -> new UserNotFoundException("Refresh token not found."));
+        byte[] incomingHash = jwtService.computeRefreshTokenDigest(request.refreshToken());
+        if (refreshTokenRepository.deleteByTokenHash(incomingHash) == 0) {
+            throw new UserNotFoundException("Refresh token not found.");
+        }
+    }
 
-    user.setRefreshTokenHash(null);
-    user.setRefreshTokenExpiry(null);
-    userRepository.save(user);
+    private VerifiedToken verifyRefreshToken(String refreshToken) {
+        try {
+            return jwtService.verify(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new TokenRefreshException("Refresh token is invalid or has expired. Please sign in again.");
+        }
+    }
+
+    private AuthenticatedUser loadSessionOwner(RefreshToken session) {
+        String username = userRepository.findUsernameById(session.getUserId())
+                .orElseThrow(() -> new TokenRefreshException("Refresh token not found."));
+        return loadSessionOwner(username, session);
+    }
+
+    private AuthenticatedUser loadSessionOwner(String username, RefreshToken session) {
+        AuthenticatedUser user;
+        try {
+            user = (AuthenticatedUser) userDetailsService.loadUserByUsername(username);
+        } catch (UserNotFoundException e) {
+            throw new TokenRefreshException("Refresh token not found.");
+        }
+        // The token's subject must still name the user owning the session, e.g. after a rename
+        if (!user.getId().equals(session.getUserId())) {
+            throw new TokenRefreshException("Refresh token not found.");
+        }
+        return user;
     }
-}
\ No newline at end of file
+}
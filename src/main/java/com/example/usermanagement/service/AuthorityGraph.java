@@ -0,0 +1,126 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.Permission;
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.mapper.ApplicationMapper;
+import com.example.usermanagement.repository.PermissionRepository;
+import com.example.usermanagement.repository.RoleRepository;
+import com.example.usermanagement.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the current {@link AuthoritySnapshot}. The snapshot is built at startup and swapped
+ * atomically after every committed change to roles or permissions; readers never block and
+ * never see a half-built graph. Other instances pick up changes on the periodic refresh.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthorityGraph {
+
+    private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
+    private final ApplicationMapper mapper;
+
+    private final AtomicReference<AuthoritySnapshot> current = new AtomicReference<>();
+    // A lock rather than synchronized: rebuilds query the database and must not pin virtual threads
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private long version;
+
+    public AuthoritySnapshot current() {
+        AuthoritySnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : rebuild();
+    }
+
+    public AuthenticatedUser principalFor(User user) {
+        AuthoritySnapshot.Grants grants = current().grantsFor(user.getRoles());
+        Set<Integer> roleIds = user.getRoles().stream().map(Role::getId).collect(Collectors.toUnmodifiableSet());
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(),
+                grants.authorities(), grants.bits(), roleIds);
+    }
+
+    /**
+     * Build a principal from the claims of a verified access token. Returns {@code null} when
+     * the token predates stateless mode and carries no permissions claim, in which case the
+     * caller must load the user instead.
+     */
+    public AuthenticatedUser principalFor(VerifiedToken token) {
+        if (!token.hasAuthorities()) {
+            return null;
+        }
+        List<SimpleGrantedAuthority> authorities = token.authorities().stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return new AuthenticatedUser(token.userId(), token.subject(), null, authorities,
+                current().bitsFor(token.authorities()));
+    }
+
+    /**
+     * Rebuild once the surrounding transaction commits, so the new snapshot reflects the
+     * committed state. Rolled-back changes leave the current snapshot in place.
+     */
+    public void rebuildAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuild();
+                }
+            });
+        } else {
+            rebuild();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.authority-graph.refresh-interval-ms:60000}",
+            initialDelayString = "${app.authority-graph.refresh-interval-ms:60000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    public AuthoritySnapshot rebuild() {
+        rebuildLock.lock();
+        try {
+            List<Role> roles = roleRepository.findAllWithPermissions().stream()
+                    .sorted(Comparator.comparing(Role::getId))
+                    .toList();
+            List<Permission> permissions = permissionRepository.findAll().stream()
+                    .sorted(Comparator.comparing(Permission::getId))
+                    .toList();
+
+            AuthoritySnapshot snapshot = new AuthoritySnapshot(
+                    ++version,
+                    roles,
+                    permissions,
+                    roles.stream().map(mapper::toRoleDto).toList(),
+                    permissions.stream().map(mapper::toPermissionDto).toList()
+            );
+            current.set(snapshot);
+            log.debug("Authority graph rebuilt: version={}, roles={}, permissions={}", snapshot.getVersion(), roles.size(), permissions.size());
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
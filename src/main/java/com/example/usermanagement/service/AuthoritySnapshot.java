@@ -0,0 +1,130 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.PermissionDto;
+import com.example.usermanagement.dto.RoleDto;
+import com.example.usermanagement.entity.Permission;
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.security.PermissionBits;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, versioned view of the role → permission model. Every principal holding the
+ * same set of roles shares the same authority set instance, so resolving authorities is a
+ * map lookup instead of a walk over the entity graph.
+ */
+public final class AuthoritySnapshot {
+
+    /**
+     * What a set of roles grants: authority objects for Spring Security plus the same
+     * permissions as a bitset for {@code @PreAuthorize} checks.
+     */
+    public record Grants(Set<GrantedAuthority> authorities, PermissionBits bits) {
+    }
+
+    @Getter
+    private final long version;
+    @Getter
+    private final List<RoleDto> roles;
+    @Getter
+    private final List<PermissionDto> permissions;
+
+    // Compact bit index per permission name, assigned in permission id order
+    private final Map<String, Integer> permissionIndex;
+    private final Map<Integer, Grants> grantsByRoleId;
+    private final Map<Integer, RoleDto> roleDtoById;
+
+    // Users holding several roles get the union memoized per distinct role combination
+    private final Map<Set<Integer>, Grants> grantsByRoleCombination = new ConcurrentHashMap<>();
+
+    AuthoritySnapshot(long version, List<Role> roles, List<Permission> permissions,
+                      List<RoleDto> roleDtos, List<PermissionDto> permissionDtos) {
+        this.version = version;
+        this.roles = List.copyOf(roleDtos);
+        this.permissions = List.copyOf(permissionDtos);
+
+        Map<String, Integer> index = new HashMap<>();
+        for (Permission permission : permissions) {
+            index.putIfAbsent(permission.getName(), index.size());
+        }
+        this.permissionIndex = Map.copyOf(index);
+
+        Map<Integer, Grants> byRole = new HashMap<>();
+        for (Role role : roles) {
+            byRole.put(role.getId(), grantsOf(List.of(role)));
+        }
+        this.grantsByRoleId = Map.copyOf(byRole);
+
+        // roleDtos is the mapped form of roles, element for element
+        Map<Integer, RoleDto> dtoById = new HashMap<>();
+        for (int i = 0; i < roles.size(); i++) {
+            dtoById.put(roles.get(i).getId(), this.roles.get(i));
+        }
+        this.roleDtoById = Map.copyOf(dtoById);
+    }
+
+    /**
+     * @return the role with its permissions, or {@code null} if it was committed after this snapshot was taken
+     */
+    public RoleDto roleDto(Integer roleId) {
+        return roleDtoById.get(roleId);
+    }
+
+    public Set<GrantedAuthority> authoritiesFor(Collection<Role> roles) {
+        return grantsFor(roles).authorities();
+    }
+
+    public Grants grantsFor(Collection<Role> roles) {
+        if (roles.isEmpty()) {
+            return grantsOf(List.of());
+        }
+        if (roles.size() == 1) {
+            Role role = roles.iterator().next();
+            Grants grants = grantsByRoleId.get(role.getId());
+            // A role committed after this snapshot was taken: resolve from the entity until the next swap
+            return grants != null ? grants : grantsOf(roles);
+        }
+        Set<Integer> roleIds = roles.stream().map(Role::getId).collect(Collectors.toUnmodifiableSet());
+        if (!grantsByRoleId.keySet().containsAll(roleIds)) {
+            return grantsOf(roles);
+        }
+        return grantsByRoleCombination.computeIfAbsent(roleIds, ids -> {
+            Set<GrantedAuthority> authorities = new HashSet<>();
+            PermissionBits bits = PermissionBits.of(permissionIndex, List.of());
+            for (Integer id : ids) {
+                Grants grants = grantsByRoleId.get(id);
+                authorities.addAll(grants.authorities());
+                bits = bits.or(grants.bits());
+            }
+            return new Grants(Set.copyOf(authorities), bits);
+        });
+    }
+
+    /**
+     * Bitset for permission names taken from elsewhere, e.g. the claims of a stateless token.
+     */
+    public PermissionBits bitsFor(Collection<String> permissionNames) {
+        return PermissionBits.of(permissionIndex, permissionNames);
+    }
+
+    private Grants grantsOf(Collection<Role> roles) {
+        Set<String> names = roles.stream()
+                .flatMap(role -> role.getPermissions().stream())
+                .map(Permission::getName)
+                .collect(Collectors.toSet());
+        Set<GrantedAuthority> authorities = names.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toUnmodifiableSet());
+        return new Grants(authorities, PermissionBits.of(permissionIndex, names));
+    }
+}
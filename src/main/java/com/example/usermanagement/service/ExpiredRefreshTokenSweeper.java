@@ -0,0 +1,107 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Deletes expired refresh sessions that nobody presents again. Work is split into small
+ * batches, each selected from the expiry index and deleted by primary key in its own short
+ * transaction, with a pause in between so the sweep never holds locks on
+ * {@code refresh_tokens} for long.
+ */
+@Component
+@Slf4j
+public class ExpiredRefreshTokenSweeper {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pauseMs;
+
+    private final Timer runTimer;
+    private final DistributionSummary deletedPerRun;
+    private final Counter deleted;
+
+    public ExpiredRefreshTokenSweeper(RefreshTokenRepository refreshTokenRepository,
+                                      @Value("${app.refresh-tokens.purge.enabled:true}") boolean enabled,
+                                      @Value("${app.refresh-tokens.purge.batch-size:500}") int batchSize,
+                                      @Value("${app.refresh-tokens.purge.pause-ms:100}") long pauseMs,
+                                      MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+        this.runTimer = Timer.builder("refresh_tokens.purge.duration")
+                .description("Duration of one expired refresh token sweep")
+                .register(meterRegistry);
+        this.deletedPerRun = DistributionSummary.builder("refresh_tokens.purge.run.deleted")
+                .description("Expired refresh tokens deleted per sweep")
+                .register(meterRegistry);
+        this.deleted = Counter.builder("refresh_tokens.purge.deleted")
+                .description("Expired refresh tokens deleted by the sweeper")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh-tokens.purge.interval-ms:3600000}",
+            initialDelayString = "${app.refresh-tokens.purge.interval-ms:3600000}")
+    public void sweep() {
+        if (enabled) {
+            purgeExpired(Instant.now());
+        }
+    }
+
+    /**
+     * @return the number of sessions deleted
+     */
+    public int purgeExpired(Instant cutoff) {
+        Timer.Sample sample = Timer.start();
+        int total = 0;
+        int batches = 0;
+        try {
+            while (true) {
+                List<Long> ids = refreshTokenRepository.findExpiredIds(cutoff, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                int removed = refreshTokenRepository.deleteByIdIn(ids);
+                total += removed;
+                batches++;
+                deleted.increment(removed);
+                if (ids.size() < batchSize || !pause()) {
+                    break;
+                }
+            }
+        } finally {
+            sample.stop(runTimer);
+            deletedPerRun.record(total);
+        }
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens in {} batches", total, batches);
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
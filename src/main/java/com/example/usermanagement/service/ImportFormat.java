@@ -0,0 +1,11 @@
+package com.example.usermanagement.service;
+
+/**
+ * Body formats accepted by the bulk user import.
+ */
+public enum ImportFormat {
+    /** One JSON object per line, shaped like {@code CreateUserRequest}. */
+    NDJSON,
+    /** A header line naming the {@code username} and {@code password} columns, then one user per line. */
+    CSV
+}
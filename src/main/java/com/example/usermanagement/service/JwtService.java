@@ -1,20 +1,44 @@
 package com.example.usermanagement.service;
 
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.security.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String AUTHORITIES_CLAIM = "perms";
+
+    private static final String REFRESH_DIGEST_ALGORITHM = "HmacSHA256";
+    private static final int OPAQUE_TOKEN_BYTES = 32;
+    private static final Base64.Encoder OPAQUE_TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
     @Value("${jwt.secret.key}")
     private String secretKey;
 
@@ -24,6 +48,38 @@ public class JwtService {
     @Value("${jwt.refresh-token.expiration.ms}")
     private long refreshExpiration;
 
+    // When enabled, access tokens carry the user id and effective permissions so that
+    // requests can be authenticated from the verified claims without a database lookup.
+    @Value("${jwt.stateless-auth.enabled:false}")
+    private boolean statelessAuthEnabled;
+
+    // Issue refresh tokens as 32 random bytes (base64url) instead of signed JWTs. Tokens of
+    // either format are accepted, so the setting can be switched without signing anyone out.
+    @Value("${jwt.refresh-token.opaque:false}")
+    private boolean opaqueRefreshTokens;
+
+    // Decoded once at startup; both the key and the parser are immutable and thread-safe.
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Initialised HMAC instances for refresh token digests. Mac is not thread-safe, so each
+    // digest borrows one; an empty pool falls back to cloning the keyed prototype.
+    private Mac refreshDigestPrototype;
+    private final BlockingQueue<Mac> refreshDigestPool = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        try {
+            this.refreshDigestPrototype = Mac.getInstance(REFRESH_DIGEST_ALGORITHM);
+            refreshDigestPrototype.init(new SecretKeySpec(signingKey.getEncoded(), REFRESH_DIGEST_ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialise refresh token digest", e);
+        }
+    }
+
     public long getJwtExpiration() {
         return jwtExpiration;
     }
@@ -32,8 +88,30 @@ public class JwtService {
         return refreshExpiration;
     }
 
+    public boolean isStatelessAuthEnabled() {
+        return statelessAuthEnabled;
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
+    }
+
+    /**
+     * Parse and HMAC-check a token exactly once. Throws {@link io.jsonwebtoken.JwtException}
+     * when the token is malformed, tampered with or expired.
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = extractAllClaims(token);
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        List<?> permissions = claims.get(AUTHORITIES_CLAIM, List.class);
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                userId != null ? userId.longValue() : null,
+                permissions != null ? permissions.stream().map(Object::toString).toList() : null,
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -42,48 +120,74 @@ public class JwtService {
     }
 
     public String generateToken(UserDetails userDetails) {
+        JwtBuilder builder = Jwts.builder()
+                .subject(userDetails.getUsername())
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + jwtExpiration));
+        if (statelessAuthEnabled) {
+            Long userId = extractUserId(userDetails);
+            if (userId != null) {
+                builder.claim(USER_ID_CLAIM, userId);
+            }
+            builder.claim(AUTHORITIES_CLAIM, userDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .distinct()
+                    .toList());
+        }
+        return builder.signWith(getSignInKey()).compact();
+    }
+
+    public String generateRefreshToken(UserDetails userDetails) {
+        if (opaqueRefreshTokens) {
+            byte[] random = new byte[OPAQUE_TOKEN_BYTES];
+            secureRandom.nextBytes(random);
+            return OPAQUE_TOKEN_ENCODER.encodeToString(random);
+        }
         return Jwts.builder()
+                .id(java.util.UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
+                .expiration(new Date(System.currentTimeMillis() + refreshExpiration))
                 .signWith(getSignInKey())
                 .compact();
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
-    return Jwts.builder()
-        .setId(java.util.UUID.randomUUID().toString())
-        .subject(userDetails.getUsername())
-        .issuedAt(new Date(System.currentTimeMillis()))
-        .expiration(new Date(System.currentTimeMillis() + refreshExpiration))
-        .signWith(getSignInKey())
-        .compact();
+    /**
+     * Opaque refresh tokens carry no claims and are only meaningful through their stored
+     * digest; JWT refresh tokens always contain dots.
+     */
+    public boolean isOpaqueRefreshToken(String refreshToken) {
+        return refreshToken.indexOf('.') < 0;
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verify(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.subject().equals(userDetails.getUsername()) && !isTokenExpired(token);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private Long extractUserId(UserDetails userDetails) {
+        if (userDetails instanceof User user) {
+            return user.getId();
+        }
+        if (userDetails instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.getId();
+        }
+        return null;
+    }
+
+    private boolean isTokenExpired(VerifiedToken token) {
+        return token.expiration() != null && token.expiration().isBefore(Instant.now());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     /**
@@ -91,20 +195,30 @@ public class JwtService {
      * The resulting hex string is safe to store in DB and compare.
      */
     public String computeRefreshTokenHash(String refreshToken) {
+        return HexFormat.of().formatHex(computeRefreshTokenDigest(refreshToken));
+    }
+
+    /**
+     * Raw 32-byte HMAC-SHA256 of the refresh token, as stored in {@code refresh_tokens.token_hash}.
+     */
+    public byte[] computeRefreshTokenDigest(String refreshToken) {
+        Mac mac = refreshDigestPool.poll();
+        if (mac == null) {
+            mac = newRefreshDigest();
+        }
         try {
-            byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-            javax.crypto.Mac mac = javax.crypto.Mac.getInstance("HmacSHA256");
-            javax.crypto.spec.SecretKeySpec keySpec = new javax.crypto.spec.SecretKeySpec(keyBytes, "HmacSHA256");
-            mac.init(keySpec);
-            byte[] rawHmac = mac.doFinal(refreshToken.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            // Convert to hex
-            StringBuilder sb = new StringBuilder(rawHmac.length * 2);
-            for (byte b : rawHmac) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to compute refresh token hash", e);
+            return mac.doFinal(refreshToken.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            // doFinal resets the Mac for reuse; the pool silently drops extras when full
+            refreshDigestPool.offer(mac);
+        }
+    }
+
+    private Mac newRefreshDigest() {
+        try {
+            return (Mac) refreshDigestPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support cloning", e);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.example.usermanagement.service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for replacing the members of a many-to-many association. The managed collection
+ * is changed in place, so Hibernate deletes and inserts only the join rows that differ;
+ * assigning a new collection instead makes it delete every row of the owner and insert
+ * them all again.
+ */
+final class Memberships {
+
+    private Memberships() {
+    }
+
+    /**
+     * Load all named entities with one query.
+     *
+     * @throws RuntimeException naming every unknown entry, before anything is changed
+     */
+    static <T> List<T> resolve(Collection<String> names,
+                               Function<Collection<String>, List<T>> findByNameIn,
+                               Function<T, String> nameOf,
+                               String kind) {
+        Set<String> wanted = new LinkedHashSet<>(names);
+        if (wanted.isEmpty()) {
+            return List.of();
+        }
+        List<T> found = findByNameIn.apply(wanted);
+        // Names compare case-insensitively, like the columns' MySQL collation
+        Set<String> foundNames = found.stream()
+                .map(entity -> nameOf.apply(entity).toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        List<String> missing = wanted.stream()
+                .filter(name -> !foundNames.contains(name.toLowerCase(Locale.ROOT)))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new RuntimeException(kind + " not found: " + String.join(", ", missing));
+        }
+        return found;
+    }
+
+    /**
+     * Make {@code current} hold exactly {@code target}, comparing members by {@code key}.
+     *
+     * @return whether anything was added or removed
+     */
+    static <T, K> boolean replace(Set<T> current, Collection<T> target, Function<T, K> key) {
+        Set<K> targetKeys = target.stream().map(key).collect(Collectors.toSet());
+        boolean changed = current.removeIf(member -> !targetKeys.contains(key.apply(member)));
+        Set<K> currentKeys = current.stream().map(key).collect(Collectors.toSet());
+        for (T member : target) {
+            if (currentKeys.add(key.apply(member))) {
+                current.add(member);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing (BCrypt encode/verify) on a CPU-sized pool with a bounded queue, so
+ * a burst of sign-ins cannot occupy every request thread. When the queue is full work is
+ * rejected immediately with {@link ServiceBusyException} (503) instead of piling up.
+ * Queue depth and pool activity are published as {@code executor.*} meters tagged
+ * {@code name=passwordHashing}; hash latency is recorded by the encoder itself.
+ */
+@Component
+@Slf4j
+public class PasswordHasher {
+
+    private static final String EXECUTOR_NAME = "passwordHashing";
+
+    private final PasswordEncoder passwordEncoder;
+    private final int poolSize;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${app.security.password-hashing.threads:0}") int threads,
+                          @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                          MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        // Platform threads even in virtual-thread mode: BCrypt is CPU-bound and would otherwise
+        // monopolise the carrier threads, and the fixed pool is what provides backpressure
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, EXECUTOR_NAME, Tags.empty()).bindTo(meterRegistry);
+        this.rejected = Counter.builder("executor.rejected")
+                .tag("name", EXECUTOR_NAME)
+                .description("Tasks rejected because the password hashing queue was full")
+                .register(meterRegistry);
+        log.info("Password hashing pool: threads={}, queueCapacity={}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Run a task that hashes or verifies passwords on the hashing pool.
+     *
+     * @throws ServiceBusyException if the pool and its queue are saturated
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many concurrent password operations. Please retry shortly.");
+        }
+    }
+
+    /**
+     * Encode on the hashing pool, blocking the caller until the hash is ready.
+     */
+    public String encode(String rawPassword) {
+        return join(submit(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Verify on the hashing pool, blocking the caller until the check is done. The caller
+     * waits without using CPU, and only as many callers as the pool and its queue admit.
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return join(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Encode many passwords in parallel for bulk work. The input is split into one slice per
+     * pool thread, so a bulk call queues only a few tasks and never crowds out sign-ins; a
+     * slice that does not fit in the queue is hashed on the calling thread instead.
+     *
+     * @return the hashes, in input order
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        String[] hashes = new String[rawPasswords.size()];
+        int slices = Math.min(poolSize, rawPasswords.size());
+        List<CompletableFuture<Void>> pending = new ArrayList<>(slices);
+        for (int slice = 0; slice < slices; slice++) {
+            int from = rawPasswords.size() * slice / slices;
+            int to = rawPasswords.size() * (slice + 1) / slices;
+            Runnable work = () -> {
+                for (int i = from; i < to; i++) {
+                    hashes[i] = passwordEncoder.encode(rawPasswords.get(i));
+                }
+            };
+            try {
+                pending.add(CompletableFuture.runAsync(work, executor));
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                work.run();
+            }
+        }
+        join(CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)));
+        return Arrays.asList(hashes);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.RoleMembershipChangeRequest;
+import com.example.usermanagement.dto.RoleMembershipChangeResponse;
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.exception.BatchTooLargeException;
+import com.example.usermanagement.repository.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Adds or removes one role for many users at once. Users are processed in chunks of at most
+ * {@code chunkSize}; each chunk is a single set-based statement on {@code user_roles} in its
+ * own short transaction, so a large change never holds locks on the whole table and never
+ * loads user entities. Cached principals of every user in a chunk are evicted as it commits.
+ */
+@Service
+@Slf4j
+public class RoleMembershipService {
+
+    static final int MAX_USER_IDS = 100_000;
+
+    // IGNORE skips users that already hold the role; selecting from users drops unknown ids
+    private static final String ASSIGN = """
+            INSERT IGNORE INTO user_roles (user_id, role_id)
+            SELECT u.id, :roleId FROM users u WHERE u.id IN (:userIds)""";
+    private static final String REVOKE = "DELETE FROM user_roles WHERE role_id = :roleId AND user_id IN (:userIds)";
+    // Seeks the role_id index, whose entries are ordered by user_id within a role
+    private static final String MEMBERS_AFTER = """
+            SELECT user_id FROM user_roles
+            WHERE role_id = :roleId AND user_id > :after
+            ORDER BY user_id
+            LIMIT :limit""";
+
+    private final RoleRepository roleRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserDetailsCache userDetailsCache;
+    private final int chunkSize;
+
+    public RoleMembershipService(RoleRepository roleRepository,
+                                 NamedParameterJdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 UserDetailsCache userDetailsCache,
+                                 @Value("${app.roles.bulk.chunk-size:1000}") int chunkSize) {
+        this.roleRepository = roleRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userDetailsCache = userDetailsCache;
+        this.chunkSize = chunkSize;
+    }
+
+    public RoleMembershipChangeResponse assign(Integer roleId, RoleMembershipChangeRequest request) {
+        return change(roleId, request, ASSIGN, "assigned");
+    }
+
+    public RoleMembershipChangeResponse revoke(Integer roleId, RoleMembershipChangeRequest request) {
+        return change(roleId, request, REVOKE, "revoked");
+    }
+
+    private RoleMembershipChangeResponse change(Integer roleId, RoleMembershipChangeRequest request, String statement, String verb) {
+        Role role = roleRepository.findById(roleId)
+                .orElseThrow(() -> new RuntimeException("Role not found with id: " + roleId));
+        long selected = 0;
+        long changed = 0;
+
+        if (request.userIds() != null && !request.userIds().isEmpty()) {
+            List<Long> userIds = request.userIds().stream().distinct().toList();
+            if (userIds.size() > MAX_USER_IDS) {
+                throw new BatchTooLargeException("At most " + MAX_USER_IDS + " user ids can be changed per request");
+            }
+            for (int from = 0; from < userIds.size(); from += chunkSize) {
+                changed += apply(statement, role.getId(), userIds.subList(from, Math.min(from + chunkSize, userIds.size())));
+            }
+            selected = userIds.size();
+        } else {
+            Role filter = roleRepository.findByName(request.inRole())
+                    .orElseThrow(() -> new RuntimeException("Role not found: " + request.inRole()));
+            long after = 0;
+            while (true) {
+                List<Long> userIds = jdbcTemplate.queryForList(MEMBERS_AFTER, new MapSqlParameterSource()
+                        .addValue("roleId", filter.getId())
+                        .addValue("after", after)
+                        .addValue("limit", chunkSize), Long.class);
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                selected += userIds.size();
+                changed += apply(statement, role.getId(), userIds);
+                after = userIds.get(userIds.size() - 1);
+                if (userIds.size() < chunkSize) {
+                    break;
+                }
+            }
+        }
+
+        log.info("Role {} {} for {} of {} selected users", role.getName(), verb, changed, selected);
+        return new RoleMembershipChangeResponse(role.getId(), role.getName(), selected, changed);
+    }
+
+    private int apply(String statement, Integer roleId, List<Long> userIds) {
+        Integer changed = transactionTemplate.execute(status -> {
+            int rows = jdbcTemplate.update(statement, new MapSqlParameterSource()
+                    .addValue("roleId", roleId)
+                    .addValue("userIds", userIds));
+            if (rows > 0) {
+                userDetailsCache.evictUsers(userIds);
+            }
+            return rows;
+        });
+        return changed != null ? changed : 0;
+    }
+}
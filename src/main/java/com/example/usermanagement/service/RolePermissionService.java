@@ -2,51 +2,80 @@ package com.example.usermanagement.service;
 
 import com.example.usermanagement.dto.CreatePermissionRequest;
 import com.example.usermanagement.dto.CreateRoleRequest;
+import com.example.usermanagement.dto.CursorPage;
 import com.example.usermanagement.dto.PermissionDto;
 import com.example.usermanagement.dto.RoleDetailDto;
 import com.example.usermanagement.dto.RoleDto;
 import com.example.usermanagement.dto.UpdateRolePermissionsRequest;
+import com.example.usermanagement.dto.UserDto;
 import com.example.usermanagement.entity.Permission;
 import com.example.usermanagement.entity.Role;
 import com.example.usermanagement.repository.PermissionRepository;
 import com.example.usermanagement.repository.RoleRepository;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.exception.InvalidCursorException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Set;
 import com.example.usermanagement.mapper.ApplicationMapper;
 import org.springframework.dao.DataIntegrityViolationException;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RolePermissionService {
 
     private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
     private final PermissionRepository permissionRepository;
     private final ApplicationMapper mapper;
+    private final AuthorityGraph authorityGraph;
+    private final UserDetailsCache userDetailsCache;
 
-    @Transactional(readOnly = true)
     public List<RoleDto> getAllRoles() {
-        return roleRepository.findAll().stream()
-                .map(mapper::toRoleDto)
-                .collect(Collectors.toList());
+        return authorityGraph.current().getRoles();
     }
 
+    /**
+     * The role with its permissions and member count. Members themselves are listed page by
+     * page through {@link #getRoleMembers}, so the cost does not grow with the role's size.
+     */
     @Transactional(readOnly = true)
     public RoleDetailDto getRoleDetailsById(Integer roleId) {
         Role role = roleRepository.findById(roleId)
                 .orElseThrow(() -> new RuntimeException("Role not found with id: " + roleId));
-        return mapper.toRoleDetailDto(role);
+        RoleDto dto = mapper.toRoleDto(role);
+        return new RoleDetailDto(dto.id(), dto.name(), dto.permissions(), roleRepository.countUsers(roleId));
     }
 
+    /**
+     * One keyset page of the users holding a role, in id order.
+     *
+     * @param after the {@code nextCursor} of the previous page, or {@code null} for the first
+     * @throws InvalidCursorException if {@code after} is malformed
+     */
     @Transactional(readOnly = true)
+    public CursorPage<UserDto> getRoleMembers(Integer roleId, String after, int limit) {
+        int size = Math.clamp(limit, 1, UserService.MAX_CURSOR_PAGE_SIZE);
+        // One extra row tells whether another page follows
+        Pageable window = PageRequest.of(0, size + 1);
+        UserCursor cursor = after != null && !after.isBlank() ? UserCursor.decode(after, UserSortOrder.ID) : null;
+
+        List<UserDto> rows = cursor == null
+                ? userRepository.findRoleMembersPage(roleId, window)
+                : userRepository.findRoleMembersPageAfter(roleId, cursor.id(), window);
+        // Only an empty page needs to tell an unknown role from one without (further) members
+        if (rows.isEmpty() && !roleRepository.existsById(roleId)) {
+            throw new RuntimeException("Role not found with id: " + roleId);
+        }
+        return UserCursor.page(rows, size, UserSortOrder.ID);
+    }
+
     public List<PermissionDto> getAllPermissions() {
-        return permissionRepository.findAll().stream()
-                .map(mapper::toPermissionDto)
-                .collect(Collectors.toList());
+        return authorityGraph.current().getPermissions();
     }
 
     @Transactional
@@ -56,7 +85,9 @@ public class RolePermissionService {
         }
         Role newRole = new Role();
         newRole.setName(request.name());
-        return mapper.toRoleDto(roleRepository.save(newRole));
+        RoleDto created = mapper.toRoleDto(roleRepository.save(newRole));
+        authorityGraph.rebuildAfterCommit();
+        return created;
     }
 
     @Transactional
@@ -64,13 +95,17 @@ public class RolePermissionService {
         Role role = roleRepository.findById(roleId)
                 .orElseThrow(() -> new RuntimeException("Role not found with id: " + roleId));
 
-        Set<Permission> newPermissions = request.permissionNames().stream()
-                .map(permissionName -> permissionRepository.findByName(permissionName)
-                        .orElseThrow(() -> new RuntimeException("Permission not found: " + permissionName)))
-                .collect(Collectors.toSet());
+        List<Permission> newPermissions = Memberships.resolve(request.permissionNames(),
+                permissionRepository::findByNameIn, Permission::getName, "Permission");
 
-        role.setPermissions(newPermissions);
-        return mapper.toRoleDto(roleRepository.save(role));
+        if (!Memberships.replace(role.getPermissions(), newPermissions, Permission::getId)) {
+            return mapper.toRoleDto(role);
+        }
+        RoleDto updated = mapper.toRoleDto(roleRepository.save(role));
+        // Registered after the rebuild so reloaded principals resolve against the new snapshot
+        authorityGraph.rebuildAfterCommit();
+        userDetailsCache.evictRole(roleId);
+        return updated;
     }
 
     @Transactional
@@ -80,13 +115,16 @@ public class RolePermissionService {
         }
         Permission newPermission = new Permission();
         newPermission.setName(request.name());
-        return mapper.toPermissionDto(permissionRepository.save(newPermission));
+        PermissionDto created = mapper.toPermissionDto(permissionRepository.save(newPermission));
+        authorityGraph.rebuildAfterCommit();
+        return created;
     }
 
     @Transactional
     public void deletePermission(Integer permissionId) {
         try {
             permissionRepository.deleteById(permissionId);
+            authorityGraph.rebuildAfterCommit();
         } catch (DataIntegrityViolationException e) {
             throw new DataIntegrityViolationException("Cannot delete permission. It is currently assigned to one or more roles.", e);
         }
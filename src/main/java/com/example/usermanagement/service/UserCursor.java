@@ -0,0 +1,60 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.CursorPage;
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Position in a keyset-paginated user listing: the sort key of the last row returned.
+ * Encoded as opaque base64url text so clients cannot depend on its structure.
+ */
+record UserCursor(UserSortOrder order, Instant createdAt, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    static UserCursor after(UserSortOrder order, UserDto last) {
+        return new UserCursor(order, order == UserSortOrder.CREATED_AT ? last.createdAt() : null, last.id());
+    }
+
+    /**
+     * Turn the rows of a window fetched with one extra row into a page of at most {@code size} items.
+     */
+    static CursorPage<UserDto> page(List<UserDto> rows, int size, UserSortOrder order) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<UserDto> items = rows.subList(0, size);
+        return new CursorPage<>(List.copyOf(items), after(order, items.get(size - 1)).encode());
+    }
+
+    String encode() {
+        String raw = order == UserSortOrder.CREATED_AT
+                ? order.token() + SEPARATOR + createdAt + SEPARATOR + id
+                : order.token() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidCursorException if the cursor is malformed or was issued for another order
+     */
+    static UserCursor decode(String cursor, UserSortOrder expectedOrder) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            UserSortOrder order = UserSortOrder.fromToken(parts[0]);
+            if (order != expectedOrder) {
+                throw new InvalidCursorException("Cursor was issued for orderBy=" + order.token());
+            }
+            return order == UserSortOrder.CREATED_AT
+                    ? new UserCursor(order, Instant.parse(parts[1]), Long.parseLong(parts[2]))
+                    : new UserCursor(order, null, Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.security.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Size- and TTL-bounded cache of the principals served by {@link UserDetailsServiceImpl}.
+ * Admin changes evict the affected entries both immediately and again once the surrounding
+ * transaction commits, so a concurrent load cannot re-populate the cache with the
+ * pre-commit state. Hit, miss, eviction, size and coalesced-load metrics are published as
+ * {@code cache.*} meters tagged {@code cache=userDetails}.
+ */
+@Component
+public class UserDetailsCache {
+
+    private static final String CACHE_NAME = "userDetails";
+
+    private final boolean enabled;
+    private final Cache<String, AuthenticatedUser> cache;
+    private final SingleFlight<String, AuthenticatedUser> loads;
+
+    // Bumped by every invalidation; a load that overlaps one is returned but not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserDetailsCache(@Value("${app.security.user-cache.enabled:true}") boolean enabled,
+                            @Value("${app.security.user-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${app.security.user-cache.ttl-seconds:300}") long ttlSeconds,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.loads = new SingleFlight<>(Counter.builder("cache.loads.coalesced")
+                .tag("cache", CACHE_NAME)
+                .description("Loads that joined an in-flight load for the same key instead of querying the database")
+                .register(meterRegistry));
+    }
+
+    /**
+     * Return the cached principal or load and cache it. Concurrent misses for the same
+     * username share a single load, also when caching is disabled. Loader exceptions
+     * (e.g. unknown user) propagate to every waiter and nothing is cached.
+     */
+    public AuthenticatedUser get(String username, Function<String, AuthenticatedUser> loader) {
+        AuthenticatedUser cached = enabled ? cache.getIfPresent(username) : null;
+        if (cached != null) {
+            return cached;
+        }
+        return loads.execute(username, () -> load(username, loader));
+    }
+
+    public void evictUser(String username) {
+        evict(() -> {
+            loads.forget(username);
+            cache.invalidate(username);
+        });
+    }
+
+    /**
+     * Evict the cached principals of the given users, e.g. after a bulk role change.
+     */
+    public void evictUsers(Collection<Long> userIds) {
+        Set<Long> ids = Set.copyOf(userIds);
+        evict(() -> {
+            loads.forgetAll();
+            cache.asMap().values().removeIf(user -> ids.contains(user.getId()));
+        });
+    }
+
+    /**
+     * Evict every cached principal holding the role, e.g. after its permissions changed.
+     */
+    public void evictRole(Integer roleId) {
+        evict(() -> {
+            loads.forgetAll();
+            cache.asMap().values().removeIf(user -> user.getRoleIds().contains(roleId));
+        });
+    }
+
+    private AuthenticatedUser load(String username, Function<String, AuthenticatedUser> loader) {
+        long generation = invalidations.get();
+        AuthenticatedUser loaded = loader.apply(username);
+        if (enabled && invalidations.get() == generation) {
+            cache.put(username, loaded);
+        }
+        return loaded;
+    }
+
+    private void evict(Runnable eviction) {
+        invalidations.incrementAndGet();
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidations.incrementAndGet();
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.usermanagement.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams every user with its role names as NDJSON. Rows come from a single forward-only
+ * query that MySQL streams row by row, and are written through Jackson's streaming
+ * generator, so memory stays constant whatever the number of users. No transaction is
+ * opened; the export holds one connection for as long as the stream runs. If the query
+ * fails midway the output is left cut off (no closing brackets, no gzip trailer), so the
+ * client cannot mistake a truncated export for a complete one.
+ */
+@Service
+@Slf4j
+public class UserExportService {
+
+    // user_roles is keyed (user_id, role_id), so the join keeps the rows of one user together in id order
+    private static final String EXPORT_QUERY = """
+            SELECT u.id, u.username, u.created_at, u.updated_at, r.name AS role_name
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            ORDER BY u.id""";
+
+    // Connector/J streams the result set one row at a time only for this fetch size
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int FLUSH_EVERY_USERS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Timer exportTimer;
+    private final Counter exportedUsers;
+
+    public UserExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.exportTimer = Timer.builder("users.export.duration")
+                .description("Duration of full user exports")
+                .register(meterRegistry);
+        this.exportedUsers = Counter.builder("users.export.rows")
+                .description("Users written by exports")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Write all users to {@code out}, one JSON object per line. {@code out} is flushed but
+     * left open.
+     *
+     * @return the number of users written
+     */
+    public long export(OutputStream out, boolean gzip) throws IOException {
+        Timer.Sample sample = Timer.start();
+        // syncFlush, so the periodic flushes push compressed data to the client too
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, 64 * 1024, true) : null;
+        OutputStream target = gzip ? gzipStream : out;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(target)) {
+            // Closing after a failure must neither complete the open user nor finish the gzip stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are separated explicitly; no extra separator between root values
+            generator.setRootValueSeparator(null);
+            NdjsonUserWriter writer = new NdjsonUserWriter(generator);
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(MYSQL_STREAMING_FETCH_SIZE);
+                return statement;
+            }, writer);
+            writer.finish();
+            if (gzipStream != null) {
+                gzipStream.finish();
+            }
+            out.flush();
+            exportedUsers.increment(writer.users());
+            log.info("Exported {} users", writer.users());
+            return writer.users();
+        } catch (UncheckedIOException e) {
+            // Typically the client went away mid-stream
+            throw e.getCause();
+        } finally {
+            sample.stop(exportTimer);
+        }
+    }
+
+    /**
+     * Folds the joined rows of each user into one line. Relies on the rows of a user being
+     * consecutive, which the query's ordering guarantees.
+     */
+    static final class NdjsonUserWriter implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+        private long currentId = -1;
+        private long users;
+
+        NdjsonUserWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long id = rs.getLong("id");
+                if (id != currentId) {
+                    endUser();
+                    startUser(rs, id);
+                }
+                String role = rs.getString("role_name");
+                if (role != null) {
+                    generator.writeString(role);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            endUser();
+            generator.flush();
+        }
+
+        long users() {
+            return users;
+        }
+
+        private void startUser(ResultSet rs, long id) throws SQLException, IOException {
+            currentId = id;
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            generator.writeStringField("username", rs.getString("username"));
+            generator.writeStringField("createdAt", rs.getTimestamp("created_at").toInstant().toString());
+            generator.writeStringField("updatedAt", rs.getTimestamp("updated_at").toInstant().toString());
+            generator.writeArrayFieldStart("roles");
+        }
+
+        private void endUser() throws IOException {
+            if (currentId < 0) {
+                return;
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            if (++users % FLUSH_EVERY_USERS == 0) {
+                generator.flush();
+            }
+        }
+    }
+}
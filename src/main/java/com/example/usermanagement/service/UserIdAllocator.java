@@ -0,0 +1,48 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.LongStream;
+
+/**
+ * Reserves user ids for JDBC writers from the same {@code id_generators} row Hibernate uses
+ * for {@link User}. Follows Hibernate's pooled semantics: reading {@code next_val = V} and
+ * advancing it by {@code k} blocks owns {@code V - blockSize + 1 .. V + (k - 1) * blockSize},
+ * so ranges never overlap with the entity generator's.
+ */
+@Component
+public class UserIdAllocator {
+
+    private static final String LOCK_ROW = "SELECT next_val FROM id_generators WHERE name = 'users' FOR UPDATE";
+    private static final String ADVANCE_ROW = "UPDATE id_generators SET next_val = next_val + ? WHERE name = 'users'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+
+    public UserIdAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // The row lock is held only for the allocation, never for the caller's work
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @return {@code count} consecutive, unused ids
+     */
+    public long[] allocate(int count) {
+        int blockSize = User.ID_ALLOCATION_SIZE;
+        int blocks = Math.max(1, (count + blockSize - 1) / blockSize);
+        Long hi = ownTransaction.execute(status -> {
+            Long value = jdbcTemplate.queryForObject(LOCK_ROW, Long.class);
+            jdbcTemplate.update(ADVANCE_ROW, (long) blocks * blockSize);
+            return value;
+        });
+        long first = hi - blockSize + 1;
+        return LongStream.range(first, first + count).toArray();
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.CreateUserRequest;
+import com.example.usermanagement.dto.UserImportReport;
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.exception.InvalidImportException;
+import com.example.usermanagement.repository.RoleRepository;
+import com.example.usermanagement.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Creates users from a streamed NDJSON or CSV body. Rows are validated as they are read and
+ * collected into chunks; each chunk is hashed in parallel on the {@link PasswordHasher} pool,
+ * gets its ids from {@link UserIdAllocator}, and is then written with one JDBC batch into
+ * {@code users} and one into {@code user_roles} in its own short transaction. The default
+ * role is resolved once per import. Bad rows are reported with their line number and never
+ * abort the rest of the import.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String DEFAULT_ROLE = "ROLE_USER";
+
+    private static final String INSERT_USER = "INSERT INTO users (id, username, password) VALUES (:id, :username, :password)";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (:userId, :roleId)";
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordHasher passwordHasher;
+    private final UserIdAllocator userIdAllocator;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public UserImportService(UserRepository userRepository,
+                             RoleRepository roleRepository,
+                             PasswordHasher passwordHasher,
+                             UserIdAllocator userIdAllocator,
+                             NamedParameterJdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${app.users.import.chunk-size:500}") int chunkSize,
+                             MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordHasher = passwordHasher;
+        this.userIdAllocator = userIdAllocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.importedRows = Counter.builder("users.import.rows")
+                .tag("outcome", "imported")
+                .description("Users created by bulk imports")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder("users.import.rows")
+                .tag("outcome", "failed")
+                .description("Bulk import rows rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws InvalidImportException if a CSV body has no usable header line
+     */
+    public UserImportReport importUsers(InputStream body, ImportFormat format) throws IOException {
+        Role role = roleRepository.findByName(DEFAULT_ROLE)
+                .orElseThrow(() -> new RuntimeException("Error: " + DEFAULT_ROLE + " is not found."));
+        ImportRun run = new ImportRun(role.getId());
+        long started = System.nanoTime();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        CsvColumns columns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == ImportFormat.NDJSON) {
+                run.acceptJson(lineNumber, line);
+            } else if (columns == null) {
+                columns = CsvColumns.of(parseCsvLine(line));
+            } else {
+                run.acceptCsv(lineNumber, line, columns);
+            }
+        }
+        run.flush();
+
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        log.info("User import finished: rows={}, imported={}, failed={}, elapsedMs={}, rowsPerSecond={}",
+                run.rows, run.imported, run.failed, elapsedMs, run.rows * 1000 / elapsedMs);
+        return new UserImportReport(run.rows, run.imported, run.failed, List.copyOf(run.errors), run.failed > run.errors.size());
+    }
+
+    private record PendingRow(long line, CreateUserRequest request) {
+    }
+
+    private record CsvColumns(int username, int password) {
+
+        static CsvColumns of(List<String> header) {
+            List<String> names = header.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+            int username = names.indexOf("username");
+            int password = names.indexOf("password");
+            if (username < 0 || password < 0) {
+                throw new InvalidImportException("CSV header must name the 'username' and 'password' columns");
+            }
+            return new CsvColumns(username, password);
+        }
+    }
+
+    /**
+     * State of one import: the chunk being filled, the usernames seen so far and the tallies.
+     */
+    private final class ImportRun {
+
+        private final Integer roleId;
+        private final List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        // Catches duplicates within the body, including across chunks that are already committed
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final List<UserImportReport.RowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long failed;
+
+        ImportRun(Integer roleId) {
+            this.roleId = roleId;
+        }
+
+        void acceptJson(long line, String json) {
+            rows++;
+            try {
+                accept(line, objectMapper.readValue(json, CreateUserRequest.class));
+            } catch (JsonProcessingException e) {
+                fail(line, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        void acceptCsv(long line, String text, CsvColumns columns) {
+            rows++;
+            List<String> values = parseCsvLine(text);
+            if (values.size() <= Math.max(columns.username(), columns.password())) {
+                fail(line, null, "Expected at least " + (Math.max(columns.username(), columns.password()) + 1)
+                        + " columns, got " + values.size());
+                return;
+            }
+            accept(line, new CreateUserRequest(values.get(columns.username()), values.get(columns.password())));
+        }
+
+        private void accept(long line, CreateUserRequest request) {
+            Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                fail(line, request.username(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            if (!seenUsernames.add(request.username())) {
+                fail(line, request.username(), "Duplicate username in import");
+                return;
+            }
+            chunk.add(new PendingRow(line, request));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<PendingRow> pending = List.copyOf(chunk);
+            chunk.clear();
+
+            Set<String> existing = userRepository.findExistingUsernames(
+                    pending.stream().map(row -> row.request().username()).toList());
+            List<PendingRow> fresh = new ArrayList<>(pending.size());
+            for (PendingRow row : pending) {
+                if (existing.contains(row.request().username())) {
+                    fail(row.line(), row.request().username(), "Username already exists");
+                } else {
+                    fresh.add(row);
+                }
+            }
+            if (fresh.isEmpty()) {
+                return;
+            }
+
+            // Hashed before the transaction starts, so BCrypt never runs with a connection held
+            List<String> hashes = passwordHasher.encodeAll(fresh.stream().map(row -> row.request().password()).toList());
+            long[] ids = userIdAllocator.allocate(fresh.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(fresh, hashes, ids));
+                imported(fresh.size());
+            } catch (DuplicateKeyException e) {
+                // A concurrent create or a case-insensitive clash: retry row by row to single out the offenders
+                for (int i = 0; i < fresh.size(); i++) {
+                    List<PendingRow> single = List.of(fresh.get(i));
+                    List<String> hash = List.of(hashes.get(i));
+                    long[] id = {ids[i]};
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> insert(single, hash, id));
+                        imported(1);
+                    } catch (DuplicateKeyException duplicate) {
+                        fail(single.get(0).line(), single.get(0).request().username(), "Username already exists");
+                    }
+                }
+            }
+        }
+
+        private void insert(List<PendingRow> pending, List<String> hashes, long[] ids) {
+            SqlParameterSource[] users = new SqlParameterSource[pending.size()];
+            SqlParameterSource[] userRoles = new SqlParameterSource[pending.size()];
+            for (int i = 0; i < pending.size(); i++) {
+                users[i] = new MapSqlParameterSource()
+                        .addValue("id", ids[i])
+                        .addValue("username", pending.get(i).request().username())
+                        .addValue("password", hashes.get(i));
+                userRoles[i] = new MapSqlParameterSource()
+                        .addValue("userId", ids[i])
+                        .addValue("roleId", roleId);
+            }
+            jdbcTemplate.batchUpdate(INSERT_USER, users);
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE, userRoles);
+        }
+
+        private void imported(int count) {
+            imported += count;
+            importedRows.increment(count);
+        }
+
+        private void fail(long line, String username, String message) {
+            failed++;
+            failedRows.increment();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new UserImportReport.RowError(line, username, message));
+            }
+        }
+    }
+
+    /**
+     * Split one CSV line into fields. Fields may be double-quoted, with {@code ""} standing
+     * for a literal quote; quoted fields spanning several lines are not supported.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -1,22 +1,34 @@
 package com.example.usermanagement.service;
 
 import com.example.usermanagement.dto.CreateUserRequest;
+import com.example.usermanagement.dto.CursorPage;
 import com.example.usermanagement.dto.UpdateUserRequest;
+import com.example.usermanagement.dto.RoleDto;
 import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.dto.UserLookupResult;
 import com.example.usermanagement.dto.UserDetailDto;
 import com.example.usermanagement.dto.UpdateUserRolesRequest;
 import com.example.usermanagement.entity.Role;
 import com.example.usermanagement.entity.User;
+import com.example.usermanagement.exception.BatchTooLargeException;
+import com.example.usermanagement.exception.InvalidFilterException;
 import com.example.usermanagement.exception.UserNotFoundException;
 import com.example.usermanagement.repository.RoleRepository;
+import com.example.usermanagement.repository.UserFilter;
 import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserSearchRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import com.example.usermanagement.mapper.ApplicationMapper;
 import java.util.stream.Collectors;
@@ -25,27 +37,83 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserService {
 
+    static final int MAX_CURSOR_PAGE_SIZE = 100;
+    static final int MAX_BATCH_IDS = 1000;
+    // Keeps each IN list well within what the optimizer handles as a range scan
+    static final int BATCH_CHUNK_SIZE = 500;
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final RoleRepository roleRepository;
     private final ApplicationMapper mapper;
+    private final UserDetailsCache userDetailsCache;
+    private final AuthorityGraph authorityGraph;
+    private final TransactionTemplate transactionTemplate;
+    private final UserSearchRepository userSearchRepository;
 
-    @Transactional
+    // Passwords are hashed on the hashing pool before the transaction starts, so BCrypt never runs with a connection held
     public UserDto createUser(CreateUserRequest request) {
-        String hashedPassword = passwordEncoder.encode(request.password());
-        User newUser = new User(request.username(), hashedPassword);
+        String hashedPassword = passwordHasher.encode(request.password());
 
-        Role userRole = roleRepository.findByName("ROLE_USER")
-                .orElseThrow(() -> new RuntimeException("Error: ROLE_USER is not found."));
-        newUser.setRoles(Set.of(userRole));
+        return transactionTemplate.execute(status -> {
+            User newUser = new User(request.username(), hashedPassword);
 
-        User savedUser = userRepository.save(newUser);
-        return mapper.toUserDto(savedUser);
+            Role userRole = roleRepository.findByName("ROLE_USER")
+                    .orElseThrow(() -> new RuntimeException("Error: ROLE_USER is not found."));
+            newUser.setRoles(Set.of(userRole));
+
+            User savedUser = userRepository.save(newUser);
+            return mapper.toUserDto(savedUser);
+        });
     }
 
+    /**
+     * @throws InvalidFilterException if a filter is given; filtering needs keyset pagination
+     */
     @Transactional(readOnly = true)
-    public Page<UserDto> getAllUsers(Pageable pageable) {
-        return userRepository.findAll(pageable).map(mapper::toUserDto);
+    public Page<UserDto> getAllUsers(Pageable pageable, UserFilter filter) {
+        if (!filter.isEmpty()) {
+            throw new InvalidFilterException("Filters are only supported with pagination=cursor");
+        }
+        // A page is the row query plus the count, whatever the page size
+        return userRepository.findAllAsDto(pageable);
+    }
+
+    /**
+     * Keyset-paginated listing: the cost of a page does not depend on how deep it is and no
+     * total count is computed. Filtered listings run as one statement built by
+     * {@link UserSearchRepository}; the cursor format is the same either way.
+     *
+     * @param after cursor from the previous page, or {@code null} for the first page
+     * @throws InvalidFilterException if the creation range is empty
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> getUsersAfter(String after, int limit, UserSortOrder order, UserFilter filter) {
+        int size = Math.clamp(limit, 1, MAX_CURSOR_PAGE_SIZE);
+        // One extra row tells whether another page follows
+        Pageable window = PageRequest.of(0, size + 1);
+        UserCursor cursor = after != null && !after.isBlank() ? UserCursor.decode(after, order) : null;
+
+        if (!filter.isEmpty()) {
+            if (filter.createdFrom() != null && filter.createdTo() != null && !filter.createdFrom().isBefore(filter.createdTo())) {
+                throw new InvalidFilterException("createdFrom must be before createdTo");
+            }
+            List<UserDto> rows = cursor == null
+                    ? userSearchRepository.findPage(filter, order, null, null, size + 1)
+                    : userSearchRepository.findPage(filter, order, cursor.createdAt(), cursor.id(), size + 1);
+            return UserCursor.page(rows, size, order);
+        }
+
+        List<UserDto> rows = switch (order) {
+            case ID -> cursor == null
+                    ? userRepository.findPageOrderById(window)
+                    : userRepository.findPageOrderByIdAfter(cursor.id(), window);
+            case CREATED_AT -> cursor == null
+                    ? userRepository.findPageOrderByCreatedAt(window)
+                    : userRepository.findPageOrderByCreatedAtAfter(cursor.createdAt(), cursor.id(), window);
+        };
+
+        return UserCursor.page(rows, size, order);
     }
 
     @Transactional(readOnly = true)
@@ -55,28 +123,63 @@ public class UserService {
         return mapper.toUserDto(user);
     }
 
+    /**
+     * Resolve many users at once: one {@code IN} query per chunk of distinct ids, with role
+     * permissions taken from the authority snapshot instead of the database. Results follow
+     * the order of {@code ids}, repeats included, and unknown ids are marked as not found.
+     */
+    @Transactional(readOnly = true)
+    public List<UserLookupResult> getUsersByIds(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new BatchTooLargeException("At most " + MAX_BATCH_IDS + " ids can be requested at once, got " + ids.size());
+        }
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        AuthoritySnapshot snapshot = authorityGraph.current();
+
+        Map<Long, UserDetailDto> found = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += BATCH_CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + BATCH_CHUNK_SIZE, distinct.size()));
+            for (User user : userRepository.findWithRolesByIdIn(chunk)) {
+                found.put(user.getId(), toUserDetailDto(user, snapshot));
+            }
+        }
+
+        return ids.stream()
+                .map(id -> {
+                    UserDetailDto user = found.get(id);
+                    return new UserLookupResult(id, user != null, user);
+                })
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public UserDetailDto getUserDetailsById(Long id) {
-        User user = userRepository.findById(id)
+        User user = userRepository.findWithRolesById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
         return mapper.toUserDetailDto(user);
     }
 
-    @Transactional
     public UserDto updateUser(Long id, UpdateUserRequest request) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
-
-        if (request.username() != null && !request.username().isBlank()) {
-            user.setUsername(request.username());
-        }
-        if (request.password() != null && !request.password().isBlank()) {
-            String hashedPassword = passwordEncoder.encode(request.password());
-            user.setPassword(hashedPassword);
-        }
-
-        User updatedUser = userRepository.save(user);
-        return mapper.toUserDto(updatedUser);
+        String hashedPassword = request.password() != null && !request.password().isBlank()
+                ? passwordHasher.encode(request.password())
+                : null;
+
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
+            userDetailsCache.evictUser(user.getUsername());
+
+            if (request.username() != null && !request.username().isBlank()) {
+                user.setUsername(request.username());
+            }
+            if (hashedPassword != null) {
+                user.setPassword(hashedPassword);
+            }
+
+            User updatedUser = userRepository.save(user);
+            userDetailsCache.evictUser(updatedUser.getUsername());
+            return mapper.toUserDto(updatedUser);
+        });
     }
 
     @Transactional
@@ -84,22 +187,32 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
 
-        Set<Role> newRoles = request.roleNames().stream()
-                .map(roleName -> roleRepository.findByName(roleName)
-                        .orElseThrow(() -> new RuntimeException("Role not found: " + roleName)))
-                .collect(Collectors.toSet());
+        List<Role> newRoles = Memberships.resolve(request.roleNames(), roleRepository::findByNameIn, Role::getName, "Role");
 
-        user.setRoles(newRoles);
-        userRepository.save(user);
+        if (Memberships.replace(user.getRoles(), newRoles, Role::getId)) {
+            userRepository.save(user);
+            userDetailsCache.evictUser(user.getUsername());
+        }
 
         return mapper.toUserDto(user);
     }
 
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException("User not found with id: " + id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
+        userRepository.delete(user);
+        userDetailsCache.evictUser(user.getUsername());
+    }
+
+    private UserDetailDto toUserDetailDto(User user, AuthoritySnapshot snapshot) {
+        UserDto base = mapper.toUserDto(user);
+        Set<RoleDto> roles = user.getRoles().stream()
+                .map(role -> {
+                    RoleDto cached = snapshot.roleDto(role.getId());
+                    return cached != null ? cached : mapper.toRoleDto(role);
+                })
+                .collect(Collectors.toUnmodifiableSet());
+        return new UserDetailDto(base.id(), base.username(), base.createdAt(), base.updatedAt(), roles);
     }
 }
@@ -0,0 +1,30 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.exception.InvalidCursorException;
+
+/**
+ * Orders supported by keyset pagination of users; each is backed by an index ending in {@code id}.
+ */
+public enum UserSortOrder {
+    ID("id"),
+    CREATED_AT("createdAt");
+
+    private final String token;
+
+    UserSortOrder(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    public static UserSortOrder fromToken(String token) {
+        for (UserSortOrder order : values()) {
+            if (order.token.equals(token)) {
+                return order;
+            }
+        }
+        throw new InvalidCursorException("Unsupported orderBy '" + token + "', expected 'id' or 'createdAt'");
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.usermanagement.service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Result of a single signature-checked parse of a JWT. Everything the filter and
+ * {@link AuthService} need is read from here, so a token is never parsed twice.
+ *
+ * @param authorities permission names embedded in stateless mode, or {@code null} when absent
+ */
+public record VerifiedToken(
+        String id,
+        String subject,
+        Long userId,
+        List<String> authorities,
+        Instant issuedAt,
+        Instant expiration
+) {
+
+    public VerifiedToken {
+        authorities = authorities != null ? List.copyOf(authorities) : null;
+    }
+
+    public boolean hasAuthorities() {
+        return authorities != null;
+    }
+}
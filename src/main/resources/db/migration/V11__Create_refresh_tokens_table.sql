@@ -0,0 +1,30 @@
+-- Move refresh-token state out of the users row into its own table, one row per session.
+-- Token churn (sign-in, refresh, logout) then only touches refresh_tokens and no longer
+-- rewrites users or contends with admin updates on the same row.
+
+CREATE TABLE refresh_tokens
+(
+    id         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id    BIGINT     NOT NULL,
+    -- HMAC-SHA256 of the token; raw tokens are never stored
+    token_hash BINARY(32) NOT NULL,
+    -- Stable for the lifetime of a sign-in, carried across rotations
+    session_id CHAR(36)   NOT NULL,
+    expires_at TIMESTAMP  NOT NULL,
+    created_at TIMESTAMP  NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+-- Carry over live sessions (hex hashes written since V10) so nobody is signed out
+INSERT INTO refresh_tokens (user_id, token_hash, session_id, expires_at)
+SELECT id, UNHEX(refresh_token_hash), UUID(), refresh_token_expiry
+FROM users
+WHERE refresh_token_hash IS NOT NULL
+  AND CHAR_LENGTH(refresh_token_hash) = 64
+  AND refresh_token_expiry > CURRENT_TIMESTAMP;
+
+-- The legacy columns are no longer read or written by this version but are left untouched,
+-- so older instances keep their sessions during a rolling deploy. Sessions those instances
+-- open from here on are not carried over; their users sign in again on a new instance.
+-- Clear and drop the columns in a later migration once no older instance is running.
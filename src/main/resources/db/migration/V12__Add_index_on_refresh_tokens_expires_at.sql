@@ -0,0 +1,3 @@
+-- Lets the expired-session sweeper find expired rows with a short range scan in expiry
+-- order instead of scanning the whole table.
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,3 @@
+-- Supports keyset pagination of users ordered by creation time: the next page is an index
+-- seek to (created_at, id) > (last created_at, last id), independent of page depth.
+CREATE INDEX idx_users_created_at_id ON users (created_at, id);
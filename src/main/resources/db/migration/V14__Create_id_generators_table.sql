@@ -0,0 +1,13 @@
+-- Application-side id allocation for users, so Hibernate can batch inserts (IDENTITY cannot).
+-- Pooled blocks of 50: whoever reads next_val = V owns ids V-49..V and advances the row by 50.
+CREATE TABLE id_generators
+(
+    name     VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_val BIGINT      NOT NULL
+);
+
+-- Start one block above the existing ids. users.id keeps AUTO_INCREMENT so older writers still work
+-- during a rolling deploy; every insert of this version supplies its id.
+INSERT INTO id_generators (name, next_val)
+SELECT 'users', COALESCE(MAX(id), 0) + 50
+FROM users;
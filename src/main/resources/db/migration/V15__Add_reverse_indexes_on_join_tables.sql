@@ -0,0 +1,8 @@
+-- Role and permission filters on the user listing walk the join tables from the role and
+-- permission side. Both tables are keyed owner-first, so they get the reverse composite index:
+-- "users holding role X" becomes a range on role_id already ordered by user_id, and "roles
+-- granting permission Y" a range on permission_id. Both are covering, so the join rows
+-- themselves are never read. They replace the single-column indexes MySQL created for the
+-- role_id / permission_id foreign keys, which are dropped automatically.
+CREATE INDEX idx_user_roles_role_id_user_id ON user_roles (role_id, user_id);
+CREATE INDEX idx_role_permissions_permission_id_role_id ON role_permissions (permission_id, role_id);
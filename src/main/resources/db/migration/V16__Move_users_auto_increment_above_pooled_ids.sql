@@ -0,0 +1,8 @@
+-- V14 seeded the pooled allocator just above MAX(id) but left users.id on the AUTO_INCREMENT
+-- counter it had already reached, so during a rolling deploy an older writer (no id supplied)
+-- and the first pooled block of this version (explicit ids) hand out the same values. Every
+-- explicit id at or above the counter also drags it forward into the next block.
+-- Give the two writers disjoint ranges instead: AUTO_INCREMENT continues from 10^12, far above
+-- anything the pooled allocator reaches, and explicit ids below the counter never move it.
+-- InnoDB changes the counter in place without rebuilding the table.
+ALTER TABLE users AUTO_INCREMENT = 1000000000000;
@@ -0,0 +1,165 @@
+package com.example.usermanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadReplicaRoutingTest {
+
+    private final DataSource primary = Mockito.mock(DataSource.class);
+    private final Connection primaryConnection = Mockito.mock(Connection.class);
+    private final DataSource replica = Mockito.mock(DataSource.class);
+    private final Connection replicaConnection = Mockito.mock(Connection.class);
+    private final ResultSet replicaStatus = Mockito.mock(ResultSet.class);
+    private final ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(Duration.ofSeconds(5));
+
+    private ReplicaPool replicaPool;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+        Mockito.when(replica.getConnection()).thenReturn(replicaConnection);
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(replicaConnection.createStatement()).thenReturn(statement);
+        Mockito.when(statement.executeQuery(ReplicaPool.STATUS_QUERY)).thenReturn(replicaStatus);
+
+        replicaPool = new ReplicaPool(Map.of("replica-1", replica), 5, new SimpleMeterRegistry());
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replicaPool, readYourWrites, new SimpleMeterRegistry()));
+        dataSource = proxy;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        SecurityContextHolder.clearContext();
+        replicaPool.close();
+    }
+
+    private void replicaReportsLag(Long seconds) throws SQLException {
+        Mockito.when(replicaStatus.next()).thenReturn(true);
+        Mockito.when(replicaStatus.getLong(ReplicaPool.LAG_COLUMN)).thenReturn(seconds == null ? 0 : seconds);
+        Mockito.when(replicaStatus.wasNull()).thenReturn(seconds == null);
+        replicaPool.checkHealth();
+    }
+
+    private Connection physicalConnection(boolean readOnly) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setReadOnly(readOnly);
+        return ((ConnectionProxy) connection).getTargetConnection();
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private void commit(boolean readOnly) {
+        TransactionExecution transaction = Mockito.mock(TransactionExecution.class);
+        Mockito.when(transaction.isReadOnly()).thenReturn(readOnly);
+        readYourWrites.afterCommit(transaction, null);
+    }
+
+    @Test
+    void readOnlyConnections_useHealthyReplica_andReadWriteConnectionsThePrimary() throws SQLException {
+        replicaReportsLag(1L);
+
+        assertSame(replicaConnection, physicalConnection(true));
+        assertSame(primaryConnection, physicalConnection(false));
+    }
+
+    @Test
+    void reads_fallBackToPrimary_untilReplicaIsCheckedAndWhileItLagsOrStopsReplicating() throws SQLException {
+        assertSame(primaryConnection, physicalConnection(true));
+
+        replicaReportsLag(30L);
+        assertSame(primaryConnection, physicalConnection(true));
+
+        replicaReportsLag(null);
+        assertSame(primaryConnection, physicalConnection(true));
+
+        replicaReportsLag(5L);
+        assertSame(replicaConnection, physicalConnection(true));
+    }
+
+    @Test
+    void standaloneInstanceWithoutReplicationStatus_countsAsCaughtUp() throws SQLException {
+        Mockito.when(replicaStatus.next()).thenReturn(false);
+        replicaPool.checkHealth();
+
+        assertSame(replicaConnection, physicalConnection(true));
+    }
+
+    @Test
+    void replicaRefusingConnections_isTakenOutOfRotationUntilNextCheck() throws SQLException {
+        replicaReportsLag(0L);
+        Mockito.when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertSame(primaryConnection, physicalConnection(true));
+
+        Mockito.doReturn(replicaConnection).when(replica).getConnection();
+        assertSame(primaryConnection, physicalConnection(true));
+        replicaPool.checkHealth();
+        assertSame(replicaConnection, physicalConnection(true));
+    }
+
+    @Test
+    void userWhoJustWrote_readsFromPrimary_otherUsersFromReplica() throws SQLException {
+        replicaReportsLag(0L);
+
+        signIn("alice");
+        commit(true);
+        assertSame(replicaConnection, physicalConnection(true));
+        commit(false);
+        assertSame(primaryConnection, physicalConnection(true));
+
+        signIn("bob");
+        assertSame(replicaConnection, physicalConnection(true));
+    }
+
+    @Test
+    void healthChecks_runOnTheirOwnThread_andSurviveAFailingCheck() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch checks = new CountDownLatch(2);
+        Mockito.when(replicaStatus.next())
+                .thenThrow(new IllegalStateException("driver bug"))
+                .thenAnswer(invocation -> {
+                    threads.add(Thread.currentThread().getName());
+                    checks.countDown();
+                    return false;
+                });
+
+        replicaPool.start(Duration.ofMillis(10));
+
+        assertTrue(checks.await(5, TimeUnit.SECONDS));
+        assertEquals(Set.of("replica-health"), threads);
+        assertSame(replicaConnection, physicalConnection(true));
+    }
+}
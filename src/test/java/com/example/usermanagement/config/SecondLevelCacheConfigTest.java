@@ -0,0 +1,48 @@
+package com.example.usermanagement.config;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.cache.CacheManager;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecondLevelCacheConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(SecondLevelCacheConfig.class);
+
+    @Test
+    void disabled_turnsOffSecondLevelAndQueryCacheExplicitly() {
+        contextRunner.withPropertyValues("app.jpa.second-level-cache.enabled=false").run(context -> {
+            assertTrue(context.getBeansOfType(CacheManager.class).isEmpty());
+            Map<String, Object> properties = new HashMap<>();
+            context.getBeansOfType(HibernatePropertiesCustomizer.class).values()
+                    .forEach(customizer -> customizer.customize(properties));
+
+            // Left unset, Hibernate would enable hibernate-jcache on its own with unbounded regions
+            assertEquals(false, properties.get(AvailableSettings.USE_SECOND_LEVEL_CACHE));
+            assertEquals(false, properties.get(AvailableSettings.USE_QUERY_CACHE));
+            assertEquals(2, properties.size());
+        });
+    }
+
+    @Test
+    void enabledByDefault_usesTheBoundedCacheManager() {
+        contextRunner.run(context -> {
+            Map<String, Object> properties = new HashMap<>();
+            context.getBeansOfType(HibernatePropertiesCustomizer.class).values()
+                    .forEach(customizer -> customizer.customize(properties));
+
+            assertEquals(true, properties.get(AvailableSettings.USE_SECOND_LEVEL_CACHE));
+            assertEquals(true, properties.get(AvailableSettings.USE_QUERY_CACHE));
+            assertEquals(context.getBean(CacheManager.class), properties.get(ConfigSettings.CACHE_MANAGER));
+        });
+    }
+}
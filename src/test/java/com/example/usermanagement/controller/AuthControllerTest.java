@@ -3,6 +3,7 @@ package com.example.usermanagement.controller;
 import com.example.usermanagement.dto.RefreshTokenRequest;
 import com.example.usermanagement.dto.SignInRequest;
 import com.example.usermanagement.dto.SignInResponse;
+import com.example.usermanagement.exception.ServiceBusyException;
 import com.example.usermanagement.service.AuthService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -15,6 +16,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,6 +36,9 @@ class AuthControllerTest {
     @MockBean
     private com.example.usermanagement.service.JwtService jwtService;
 
+    @MockBean
+    private com.example.usermanagement.service.AuthorityGraph authorityGraph;
+
     @Test
     void signIn_returnsToken() throws Exception {
         SignInResponse response = new SignInResponse("access", "Bearer", 3600L, "refresh");
@@ -49,6 +54,17 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.refreshToken").value("refresh"));
     }
 
+    @Test
+    void signIn_whenHashingPoolSaturated_returns503() throws Exception {
+        Mockito.when(authService.signIn(any())).thenThrow(new ServiceBusyException("busy"));
+
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SignInRequest("user", "pass"))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
     @Test
     void refreshToken_returnsNewTokens() throws Exception {
         SignInResponse response = new SignInResponse("newAccess", "Bearer", 3600L, "newRefresh");
@@ -35,9 +35,15 @@ class RoleAdminControllerTest {
     @MockBean
     private RolePermissionService rolePermissionService;
 
+    @MockBean
+    private com.example.usermanagement.service.RoleMembershipService roleMembershipService;
+
     @MockBean
     private com.example.usermanagement.service.JwtService jwtService;
 
+    @MockBean
+    private com.example.usermanagement.service.AuthorityGraph authorityGraph;
+
     @Test
     void getAllRoles_returnsList() throws Exception {
         RoleDto role = new RoleDto(1, "ROLE_USER", java.util.Set.of());
@@ -62,4 +68,14 @@ class RoleAdminControllerTest {
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.name").value("CREATE_USER"));
     }
+
+    @Test
+    void assignRole_withBothSelectors_isRejected() throws Exception {
+        mockMvc.perform(post("/api/admin/roles/3/users/assign")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[1,2],\"inRole\":\"ROLE_USER\"}"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(roleMembershipService);
+    }
 }
@@ -2,6 +2,7 @@ package com.example.usermanagement.controller;
 
 import com.example.usermanagement.dto.CreateUserRequest;
 // ...existing imports...
+import com.example.usermanagement.repository.UserFilter;
 import com.example.usermanagement.service.UserService;
 import com.example.usermanagement.service.JwtService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,6 +16,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.ArgumentMatchers.any;
 // ...existing imports...
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -32,9 +34,18 @@ class UserControllerUnitTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private com.example.usermanagement.service.UserImportService userImportService;
+
+    @MockBean
+    private com.example.usermanagement.service.UserExportService userExportService;
+
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private com.example.usermanagement.service.AuthorityGraph authorityGraph;
+
     @Test
     void createUser_returnsCreated() throws Exception {
     java.time.Instant now = java.time.Instant.now();
@@ -50,4 +61,20 @@ class UserControllerUnitTest {
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.username").value("testuser"));
     }
+
+    @Test
+    void getAllUsersByCursor_bindsFilterParameters() throws Exception {
+        Mockito.when(userService.getUsersAfter(any(), Mockito.anyInt(), any(), any()))
+                .thenReturn(new com.example.usermanagement.dto.CursorPage<>(java.util.List.of(), null));
+
+        mockMvc.perform(get("/api/users")
+                        .param("pagination", "cursor")
+                        .param("permission", "MANAGE_AUTHORIZATION")
+                        .param("usernamePrefix", "jo")
+                        .param("createdFrom", "2024-01-01T00:00:00Z"))
+                .andExpect(status().isOk());
+
+        Mockito.verify(userService).getUsersAfter(null, 20, com.example.usermanagement.service.UserSortOrder.ID,
+                new UserFilter(null, "MANAGE_AUTHORIZATION", "jo", java.time.Instant.parse("2024-01-01T00:00:00Z"), null));
+    }
 }
@@ -0,0 +1,113 @@
+package com.example.usermanagement.integration;
+
+import com.example.usermanagement.dto.UserDetailDto;
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.repository.RoleRepository;
+import com.example.usermanagement.repository.UserFilter;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.service.AuthorityGraph;
+import com.example.usermanagement.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of SQL statements per read so that fetch plans cannot silently regress
+ * into per-row selects as the data grows.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.security.user-cache.enabled=false"
+})
+class FetchPlanIntegrationTest {
+
+    private static final int USERS = 60;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AuthorityGraph authorityGraph;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<User> created = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Role> roles = roleRepository.findAll();
+        String prefix = "fetchplan-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        for (int i = 0; i < USERS; i++) {
+            User user = new User(prefix + i, "{noop}x");
+            user.setRoles(new HashSet<>(roles));
+            created.add(user);
+        }
+        userRepository.saveAll(created);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll(created);
+    }
+
+    @Test
+    void userPage_isRowQueryPlusCount_regardlessOfPageSize() {
+        userService.getAllUsers(PageRequest.of(0, 10), UserFilter.NONE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        statistics.clear();
+        userService.getAllUsers(PageRequest.of(0, 50), UserFilter.NONE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void userDetail_loadsRolesAndPermissionsInOneStatement() {
+        UserDetailDto detail = userService.getUserDetailsById(created.get(0).getId());
+
+        assertThat(detail.roles()).isNotEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void authentication_loadsUserWithGrantsInOneStatement() {
+        userDetailsService.loadUserByUsername(created.get(0).getUsername());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void authorityGraphRebuild_isOneStatementForRolesAndOneForPermissions() {
+        authorityGraph.rebuild();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.usermanagement.integration;
 
+import com.example.usermanagement.entity.RefreshToken;
 import com.example.usermanagement.entity.User;
+import com.example.usermanagement.repository.RefreshTokenRepository;
 import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.service.JwtService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -29,22 +32,18 @@ class RefreshTokenIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     @Test
     void refreshToken_happyPath_rotatesAndStoresOnlyHash() throws Exception {
         // Sign in as default admin to obtain refresh token
-        var signInResult = mockMvc.perform(post("/api/auth/signin")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content("{\"username\":\"admin\",\"password\":\"adminpassword\"}"))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.token").exists())
-                .andExpect(jsonPath("$.refreshToken").exists())
-                .andReturn();
-
-        String signInBody = signInResult.getResponse().getContentAsString();
-        JsonNode signInJson = mapper.readTree(signInBody);
-        String oldRefresh = signInJson.get("refreshToken").asText();
+        String oldRefresh = signInAsAdmin();
 
         // Call refresh endpoint with the raw refresh token
         var refreshResult = mockMvc.perform(post("/api/auth/refresh")
@@ -63,20 +62,23 @@ class RefreshTokenIntegrationTest {
     // Refresh tokens are signed JWTs; depending on signing and claims, rotation may produce same token string
     // at very short lived tests. Instead, assert that the token string is present and that the DB stores only the hash.
 
-        // Verify DB stores only the hash (refresh_token column should not contain the raw token)
-        Optional<User> adminOpt = userRepository.findByUsername("admin");
-        assertThat(adminOpt).isPresent();
-        User admin = adminOpt.get();
+        // Verify DB stores only the hash: the rotated session is found by the new token's hash,
+        // the old token no longer matches any session
+        assertThat(refreshTokenRepository.findByTokenHash(jwtService.computeRefreshTokenDigest(newRefresh))).isPresent();
+        assertThat(refreshTokenRepository.findByTokenHash(jwtService.computeRefreshTokenDigest(oldRefresh))).isEmpty();
+    }
 
-        // refresh token raw field should be null or not equal to newRefresh
-        if (admin.getRefreshToken() != null) {
-            assertThat(admin.getRefreshToken()).isNotEqualTo(newRefresh);
-            assertThat(admin.getRefreshToken()).isNotEqualTo(oldRefresh);
+    @Test
+    void signIn_twice_keepsBothSessionsUsable() throws Exception {
+        String first = signInAsAdmin();
+        String second = signInAsAdmin();
+
+        for (String refresh : new String[]{first, second}) {
+            mockMvc.perform(post("/api/auth/refresh")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"refreshToken\":\"" + refresh + "\"}"))
+                    .andExpect(status().isOk());
         }
-
-        // refreshTokenHash should be present
-        assertThat(admin.getRefreshTokenHash()).isNotNull();
-        assertThat(admin.getRefreshTokenHash()).isNotEmpty();
     }
 
     @Test
@@ -89,18 +91,29 @@ class RefreshTokenIntegrationTest {
 
     @Test
     void refreshToken_withExpiredToken_returnsNotFound() throws Exception {
-        // Create a user with an expired refresh token hash
+        // Create an expired session for the admin user
         Optional<User> adminOpt = userRepository.findByUsername("admin");
         assertThat(adminOpt).isPresent();
         User admin = adminOpt.get();
 
-        admin.setRefreshTokenHash("deadbeef");
-        admin.setRefreshTokenExpiry(Instant.now().minusSeconds(3600));
-        userRepository.save(admin);
+        refreshTokenRepository.save(new RefreshToken(admin.getId(),
+                jwtService.computeRefreshTokenDigest("some-old-token"), "expired-session",
+                Instant.now().minusSeconds(3600)));
 
     mockMvc.perform(post("/api/auth/refresh")
             .contentType(MediaType.APPLICATION_JSON)
             .content("{\"refreshToken\":\"some-old-token\"}"))
         .andExpect(status().isForbidden());
     }
+
+    private String signInAsAdmin() throws Exception {
+        var result = mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"admin\",\"password\":\"adminpassword\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists())
+                .andExpect(jsonPath("$.refreshToken").exists())
+                .andReturn();
+        return mapper.readTree(result.getResponse().getContentAsString()).get("refreshToken").asText();
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.usermanagement.integration;
+
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.repository.RoleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With the cache switched off, Hibernate must not fall back to {@code hibernate-jcache}'s
+ * default, unbounded regions just because it is the only region factory on the classpath.
+ */
+@SpringBootTest(properties = "app.jpa.second-level-cache.enabled=false")
+class SecondLevelCacheDisabledIntegrationTest {
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void disabled_keepsRolesOutOfAnyCache() {
+        SessionFactoryOptions options = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getSessionFactoryOptions();
+
+        Role role = roleRepository.findByName("ROLE_USER").orElseThrow();
+
+        assertThat(options.isSecondLevelCacheEnabled()).isFalse();
+        assertThat(options.isQueryCacheEnabled()).isFalse();
+        assertThat(entityManagerFactory.getCache().contains(Role.class, role.getId())).isFalse();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.usermanagement.integration;
+
+import com.example.usermanagement.dto.CreateRoleRequest;
+import com.example.usermanagement.dto.RoleDto;
+import com.example.usermanagement.dto.UpdateRolePermissionsRequest;
+import com.example.usermanagement.entity.Permission;
+import com.example.usermanagement.repository.RoleRepository;
+import com.example.usermanagement.service.RolePermissionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RolePermissionService rolePermissionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private RoleDto role;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        role = rolePermissionService.createRole(new CreateRoleRequest("ROLE_C" + UUID.randomUUID().toString().substring(0, 8)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        rolePermissionService.updateRolePermissions(role.id(), new UpdateRolePermissionsRequest(Set.of()));
+        roleRepository.deleteById(role.id());
+    }
+
+    @Test
+    void findByName_isServedFromQueryCache() {
+        roleRepository.findByName(role.name());
+        statistics.clear();
+
+        roleRepository.findByName(role.name());
+
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void updateRolePermissions_invalidatesCachedRoleAndCollection() {
+        assertThat(permissionNames()).isEmpty();
+
+        rolePermissionService.updateRolePermissions(role.id(), new UpdateRolePermissionsRequest(Set.of("READ_USERS")));
+
+        assertThat(permissionNames()).containsExactly("READ_USERS");
+    }
+
+    private Set<String> permissionNames() {
+        return transactionTemplate.execute(status -> roleRepository.findByName(role.name()).orElseThrow()
+                .getPermissions().stream()
+                .map(Permission::getName)
+                .collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.usermanagement.integration;
+
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.repository.RoleRepository;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.service.UserIdAllocator;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Multi-row creates must go out as JDBC batches now that user ids are allocated by the
+ * application instead of IDENTITY.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+class UserBatchInsertIntegrationTest {
+
+    private static final int USERS = 200;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserIdAllocator userIdAllocator;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> created = new ArrayList<>();
+    private final List<Long> insertedRows = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll(created);
+        insertedRows.forEach(id -> jdbcTemplate.update("DELETE FROM users WHERE id = ?", id));
+    }
+
+    @Test
+    void saveAll_batchesUserAndMembershipInserts() {
+        Role role = roleRepository.findByName("ROLE_USER").orElseThrow();
+        String prefix = "batch-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        for (int i = 0; i < USERS; i++) {
+            User user = new User(prefix + i, "{noop}x");
+            user.setRoles(new HashSet<>(Set.of(role)));
+            created.add(user);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userRepository.saveAll(created);
+
+        // users + user_roles in batches of 50, plus one id_generators round trip per 50 ids;
+        // with IDENTITY this was at least one insert per user
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(USERS / 2);
+        assertThat(created).allMatch(user -> user.getId() != null);
+        assertThat(created.stream().map(User::getId).distinct().count()).isEqualTo(USERS);
+    }
+
+    @Test
+    void jdbcAllocations_neverOverlapEntityIds() {
+        User entity = userRepository.save(new User("alloc-" + UUID.randomUUID().toString().substring(0, 8), "{noop}x"));
+        created.add(entity);
+
+        long[] ids = userIdAllocator.allocate(120);
+
+        assertThat(ids).hasSize(120);
+        assertThat(Arrays.stream(ids).distinct().count()).isEqualTo(120);
+        assertThat(ids).doesNotContain(entity.getId());
+        assertThat(ids[0]).isGreaterThan(entity.getId());
+    }
+
+    @Test
+    void autoIncrementInserts_neverMeetPooledIds() {
+        // An older writer omits the id; this version supplies pooled ids, interleaved with it
+        long legacy = insertWithoutId();
+        long[] pooled = userIdAllocator.allocate(User.ID_ALLOCATION_SIZE);
+        insertWithId(pooled[0]);
+        insertWithId(pooled[pooled.length - 1]);
+        long nextLegacy = insertWithoutId();
+        User entity = userRepository.save(new User("pooled-" + UUID.randomUUID().toString().substring(0, 8), "{noop}x"));
+        created.add(entity);
+
+        assertThat(legacy).isGreaterThanOrEqualTo(User.AUTO_INCREMENT_FLOOR);
+        assertThat(nextLegacy).isGreaterThan(legacy);
+        assertThat(pooled[pooled.length - 1]).isLessThan(User.AUTO_INCREMENT_FLOOR);
+        assertThat(entity.getId()).isLessThan(User.AUTO_INCREMENT_FLOOR).isNotIn(pooled[0], pooled[pooled.length - 1]);
+    }
+
+    private long insertWithoutId() {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO users (username, password) VALUES (?, '{noop}x')", Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, "legacy-" + UUID.randomUUID().toString().substring(0, 8));
+            return statement;
+        }, keyHolder);
+        long id = keyHolder.getKey().longValue();
+        insertedRows.add(id);
+        return id;
+    }
+
+    private void insertWithId(long id) {
+        jdbcTemplate.update("INSERT INTO users (id, username, password) VALUES (?, ?, '{noop}x')",
+                id, "explicit-" + UUID.randomUUID().toString().substring(0, 8));
+        insertedRows.add(id);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.usermanagement.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PermissionBitsMethodSecurityExpressionHandlerTest {
+
+    private final PermissionBitsMethodSecurityExpressionHandler handler = new PermissionBitsMethodSecurityExpressionHandler();
+
+    private boolean evaluate(String expression, Authentication authentication) throws Exception {
+        MethodInvocation invocation = new SimpleMethodInvocation(new Object(), Object.class.getMethod("toString"));
+        EvaluationContext context = handler.createEvaluationContext(() -> authentication, invocation);
+        return ExpressionUtils.evaluateAsBoolean(handler.getExpressionParser().parseExpression(expression), context);
+    }
+
+    private Authentication authenticate(PermissionBits bits, String... authorities) {
+        List<SimpleGrantedAuthority> granted = java.util.Arrays.stream(authorities).map(SimpleGrantedAuthority::new).toList();
+        AuthenticatedUser principal = new AuthenticatedUser(1L, "alice", null, granted, bits);
+        return new UsernamePasswordAuthenticationToken(principal, null, granted);
+    }
+
+    @Test
+    void hasAuthority_answeredFromPermissionBits() throws Exception {
+        // Enough permissions to spill into a second word of the bitset
+        Map<String, Integer> index = new HashMap<>();
+        index.put("READ_USERS", 0);
+        index.put("CREATE_USER", 1);
+        index.put("DELETE_USER", 70);
+        for (int i = 2; i < 80; i++) {
+            if (i != 70) {
+                index.put("PERMISSION_" + i, i);
+            }
+        }
+        // The authority list deliberately disagrees with the bits to prove which one is consulted
+        Authentication authentication = authenticate(PermissionBits.of(index, Set.of("READ_USERS", "DELETE_USER")), "CREATE_USER");
+
+        assertTrue(evaluate("hasAuthority('READ_USERS')", authentication));
+        assertTrue(evaluate("hasAuthority('DELETE_USER')", authentication));
+        assertFalse(evaluate("hasAuthority('CREATE_USER')", authentication));
+        assertTrue(evaluate("hasAnyAuthority('CREATE_USER', 'DELETE_USER')", authentication));
+    }
+
+    @Test
+    void hasAuthority_unknownNamesAndPlainPrincipalsFallBackToAuthorities() throws Exception {
+        Map<String, Integer> index = Map.of("READ_USERS", 0);
+        Authentication withBits = authenticate(PermissionBits.of(index, Set.of()), "LEGACY_AUTHORITY");
+        Authentication withoutBits = authenticate(null, "READ_USERS");
+
+        assertTrue(evaluate("hasAuthority('LEGACY_AUTHORITY')", withBits));
+        assertTrue(evaluate("hasAuthority('READ_USERS')", withoutBits));
+        assertFalse(evaluate("hasAuthority('CREATE_USER')", withoutBits));
+    }
+}
@@ -1,36 +1,103 @@
 package com.example.usermanagement.service;
 
+import com.example.usermanagement.dto.RefreshTokenRequest;
 import com.example.usermanagement.dto.SignInRequest;
 import com.example.usermanagement.dto.SignInResponse;
-import com.example.usermanagement.entity.User;
+import com.example.usermanagement.entity.RefreshToken;
+import com.example.usermanagement.exception.TokenRefreshException;
+import com.example.usermanagement.repository.RefreshTokenRepository;
 import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.security.AuthenticatedUser;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class AuthServiceTest {
 
+    private final RefreshTokenRepository refreshTokenRepository = Mockito.mock(RefreshTokenRepository.class);
+    private final JwtService jwtService = Mockito.mock(JwtService.class);
+    private final AuthenticationManager authManager = Mockito.mock(AuthenticationManager.class);
+    private final UserDetailsService userDetailsService = Mockito.mock(UserDetailsService.class);
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    private final AuthService svc = new AuthService(refreshTokenRepository, userRepository, jwtService, authManager,
+            userDetailsService);
+
+    private final AuthenticatedUser user = new AuthenticatedUser(7L, "user", "encoded", List.of(), null);
+
     @Test
     void signIn_successful() {
-        UserRepository userRepository = Mockito.mock(UserRepository.class);
-        JwtService jwtService = Mockito.mock(JwtService.class);
-        AuthenticationManager authManager = Mockito.mock(AuthenticationManager.class);
-
-        User user = new User("user", "encoded");
-        Mockito.when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        Mockito.when(authManager.authenticate(Mockito.any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
         Mockito.when(jwtService.generateToken(user)).thenReturn("access");
         Mockito.when(jwtService.generateRefreshToken(user)).thenReturn("refresh");
+        Mockito.when(jwtService.computeRefreshTokenDigest("refresh")).thenReturn(new byte[]{1});
         Mockito.when(jwtService.getJwtExpiration()).thenReturn(3600L);
         Mockito.when(jwtService.getRefreshExpiration()).thenReturn(86400000L);
 
-        AuthService svc = new AuthService(userRepository, jwtService, authManager);
         SignInResponse resp = svc.signIn(new SignInRequest("user", "pass"));
 
         assertEquals("access", resp.token());
         assertEquals("refresh", resp.refreshToken());
+        // Each sign-in opens its own session row for the authenticated principal
+        ArgumentCaptor<RefreshToken> session = ArgumentCaptor.forClass(RefreshToken.class);
+        Mockito.verify(refreshTokenRepository).save(session.capture());
+        assertEquals(7L, session.getValue().getUserId());
+        assertArrayEquals(new byte[]{1}, session.getValue().getTokenHash());
+    }
+
+    @Test
+    void refreshToken_whenConcurrentlyRotated_isRejected() {
+        byte[] hash = {1};
+        Mockito.when(jwtService.verify("refresh"))
+                .thenReturn(new VerifiedToken("jti", "user", null, List.of(), Instant.now(), Instant.now().plusSeconds(60)));
+        Mockito.when(jwtService.computeRefreshTokenDigest("refresh")).thenReturn(hash);
+        Mockito.when(jwtService.computeRefreshTokenDigest("newRefresh")).thenReturn(new byte[]{2});
+        Mockito.when(jwtService.generateRefreshToken(user)).thenReturn("newRefresh");
+        Mockito.when(refreshTokenRepository.findByTokenHash(hash))
+                .thenReturn(Optional.of(new RefreshToken(7L, hash, "session", Instant.now().plusSeconds(60))));
+        Mockito.when(userDetailsService.loadUserByUsername("user")).thenReturn(user);
+        Mockito.when(refreshTokenRepository.rotate(Mockito.eq(hash), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(0);
+
+        assertThrows(TokenRefreshException.class, () -> svc.refreshToken(new RefreshTokenRequest("refresh")));
+    }
+
+    @Test
+    void refreshToken_opaqueToken_resolvesOwnerFromSession() {
+        String opaque = "A".repeat(43);
+        byte[] hash = {1};
+        Mockito.when(jwtService.isOpaqueRefreshToken(opaque)).thenReturn(true);
+        Mockito.when(jwtService.computeRefreshTokenDigest(opaque)).thenReturn(hash);
+        Mockito.when(jwtService.computeRefreshTokenDigest("newRefresh")).thenReturn(new byte[]{2});
+        Mockito.when(jwtService.generateToken(user)).thenReturn("access");
+        Mockito.when(jwtService.generateRefreshToken(user)).thenReturn("newRefresh");
+        Mockito.when(refreshTokenRepository.findByTokenHash(hash))
+                .thenReturn(Optional.of(new RefreshToken(7L, hash, "session", Instant.now().plusSeconds(60))));
+        Mockito.when(userRepository.findUsernameById(7L)).thenReturn(Optional.of("user"));
+        Mockito.when(userDetailsService.loadUserByUsername("user")).thenReturn(user);
+        Mockito.when(refreshTokenRepository.rotate(Mockito.eq(hash), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(1);
+
+        SignInResponse resp = svc.refreshToken(new RefreshTokenRequest(opaque));
+
+        assertEquals("newRefresh", resp.refreshToken());
+        Mockito.verify(jwtService, Mockito.never()).verify(Mockito.any());
+    }
+
+    @Test
+    void refreshToken_malformedOpaqueToken_isRejectedWithoutLookup() {
+        Mockito.when(jwtService.isOpaqueRefreshToken("short")).thenReturn(true);
+
+        assertThrows(TokenRefreshException.class, () -> svc.refreshToken(new RefreshTokenRequest("short")));
+        Mockito.verifyNoInteractions(refreshTokenRepository);
     }
 }
@@ -0,0 +1,79 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.Permission;
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.mapper.ApplicationMapperImpl;
+import com.example.usermanagement.repository.PermissionRepository;
+import com.example.usermanagement.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AuthorityGraphTest {
+
+    private static Permission permission(int id, String name) {
+        Permission permission = new Permission(); permission.setId(id); permission.setName(name);
+        return permission;
+    }
+
+    private static Role role(int id, String name, Permission... permissions) {
+        Role role = new Role(); role.setId(id); role.setName(name);
+        role.setPermissions(Set.of(permissions));
+        return role;
+    }
+
+    private static Set<String> names(java.util.Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    }
+
+    @Test
+    void principalFor_sharesAuthoritySetsBetweenUsersWithSameRoles() {
+        RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+        PermissionRepository permissionRepository = Mockito.mock(PermissionRepository.class);
+        Permission read = permission(1, "READ_USERS");
+        Permission create = permission(2, "CREATE_USER");
+        Role user = role(1, "ROLE_USER", read);
+        Role admin = role(2, "ROLE_ADMIN", read, create);
+        Mockito.when(roleRepository.findAllWithPermissions()).thenReturn(List.of(user, admin));
+        Mockito.when(permissionRepository.findAll()).thenReturn(List.of(read, create));
+
+        AuthorityGraph graph = new AuthorityGraph(roleRepository, permissionRepository, new ApplicationMapperImpl());
+
+        User alice = new User("alice", "x"); alice.setRoles(Set.of(user, admin));
+        User bob = new User("bob", "x"); bob.setRoles(Set.of(admin, user));
+
+        var aliceAuthorities = graph.principalFor(alice).getAuthorities();
+        assertEquals(Set.of("READ_USERS", "CREATE_USER"), names(aliceAuthorities));
+        assertSame(aliceAuthorities, graph.principalFor(bob).getAuthorities());
+    }
+
+    @Test
+    void rebuild_swapsInNewVersion() {
+        RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+        PermissionRepository permissionRepository = Mockito.mock(PermissionRepository.class);
+        Permission read = permission(1, "READ_USERS");
+        Permission delete = permission(2, "DELETE_USER");
+        Mockito.when(roleRepository.findAllWithPermissions())
+                .thenReturn(List.of(role(1, "ROLE_USER", read)))
+                .thenReturn(List.of(role(1, "ROLE_USER", read, delete)));
+        Mockito.when(permissionRepository.findAll()).thenReturn(List.of(read, delete));
+
+        AuthorityGraph graph = new AuthorityGraph(roleRepository, permissionRepository, new ApplicationMapperImpl());
+        AuthoritySnapshot first = graph.current();
+        graph.rebuildAfterCommit();
+        AuthoritySnapshot second = graph.current();
+
+        assertNotSame(first, second);
+        assertEquals(first.getVersion() + 1, second.getVersion());
+        assertEquals(Set.of("READ_USERS", "DELETE_USER"), names(second.authoritiesFor(List.of(role(1, "ROLE_USER")))));
+    }
+}
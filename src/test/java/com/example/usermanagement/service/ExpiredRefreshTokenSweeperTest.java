@@ -0,0 +1,38 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExpiredRefreshTokenSweeperTest {
+
+    @Test
+    void purgeExpired_deletesInBatchesUntilAShortBatch() {
+        RefreshTokenRepository repository = Mockito.mock(RefreshTokenRepository.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ExpiredRefreshTokenSweeper sweeper = new ExpiredRefreshTokenSweeper(repository, true, 2, 0, meterRegistry);
+        Instant cutoff = Instant.now();
+
+        Mockito.when(repository.findExpiredIds(cutoff, PageRequest.of(0, 2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        Mockito.when(repository.deleteByIdIn(Mockito.anyCollection()))
+                .thenAnswer(invocation -> invocation.<java.util.Collection<?>>getArgument(0).size());
+
+        assertEquals(3, sweeper.purgeExpired(cutoff));
+
+        Mockito.verify(repository).deleteByIdIn(List.of(1L, 2L));
+        Mockito.verify(repository).deleteByIdIn(List.of(3L));
+        // The short second batch means nothing is left, so no third lookup
+        Mockito.verify(repository, Mockito.times(2)).findExpiredIds(Mockito.any(), Mockito.any());
+        assertEquals(3.0, meterRegistry.get("refresh_tokens.purge.deleted").counter().count());
+        assertEquals(1, meterRegistry.get("refresh_tokens.purge.duration").timer().count());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.Permission;
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.entity.User;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "c29tZXRoaW5nX3Zlcnlfc2VjdXJlX2FuZF9sb25nX2tleV9mb3Jfand0X3NlY3JldA==";
+
+    private JwtService jwtService(boolean statelessAuth) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 86400000L);
+        ReflectionTestUtils.setField(jwtService, "statelessAuthEnabled", statelessAuth);
+        jwtService.init();
+        return jwtService;
+    }
+
+    private User userWithPermissions(String... permissionNames) {
+        Role role = new Role(); role.setId(1); role.setName("ROLE_ADMIN");
+        for (String name : permissionNames) {
+            Permission permission = new Permission(); permission.setName(name);
+            role.getPermissions().add(permission);
+        }
+        User user = new User("admin", "encoded"); user.setId(42L);
+        user.setRoles(Set.of(role));
+        return user;
+    }
+
+    @Test
+    void generateToken_statelessMode_embedsUserIdAndPermissions() {
+        JwtService jwtService = jwtService(true);
+        String token = jwtService.generateToken(userWithPermissions("READ_USERS", "CREATE_USER"));
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertEquals(42L, verified.userId());
+        assertEquals("admin", verified.subject());
+        assertEquals(Set.of("READ_USERS", "CREATE_USER"), Set.copyOf(verified.authorities()));
+    }
+
+    @Test
+    void generateToken_defaultMode_carriesNoPermissions() {
+        String token = jwtService(false).generateToken(userWithPermissions("READ_USERS"));
+
+        VerifiedToken verified = jwtService(true).verify(token);
+
+        assertFalse(verified.hasAuthorities());
+        assertNull(verified.userId());
+    }
+
+    @Test
+    void verify_parsesSubjectAndExpiryOnce() {
+        JwtService jwtService = jwtService(false);
+        User user = userWithPermissions("READ_USERS");
+        String token = jwtService.generateToken(user);
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertEquals("admin", verified.subject());
+        assertTrue(verified.expiration().isAfter(verified.issuedAt()));
+        assertTrue(jwtService.isTokenValid(verified, user));
+    }
+
+    @Test
+    void verify_tamperedToken_throws() {
+        JwtService jwtService = jwtService(false);
+        String token = jwtService.generateToken(userWithPermissions("READ_USERS"));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+    }
+
+    @Test
+    void generateRefreshToken_opaqueMode_issuesRandomUrlSafeTokens() {
+        JwtService jwtService = jwtService(false);
+        ReflectionTestUtils.setField(jwtService, "opaqueRefreshTokens", true);
+        User user = userWithPermissions();
+
+        String first = jwtService.generateRefreshToken(user);
+        String second = jwtService.generateRefreshToken(user);
+
+        assertTrue(first.matches("[A-Za-z0-9_-]{43}"));
+        assertNotEquals(first, second);
+        assertTrue(jwtService.isOpaqueRefreshToken(first));
+        assertFalse(jwtService.isOpaqueRefreshToken(jwtService(false).generateRefreshToken(user)));
+    }
+
+    @Test
+    void computeRefreshTokenDigest_matchesHmacOfTheSecret() throws Exception {
+        // Must stay byte-compatible with hashes stored before the digest was pooled
+        Mac reference = Mac.getInstance("HmacSHA256");
+        reference.init(new SecretKeySpec(Base64.getDecoder().decode(SECRET), "HmacSHA256"));
+        byte[] expected = reference.doFinal("some-token".getBytes(StandardCharsets.UTF_8));
+        JwtService jwtService = jwtService(false);
+
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(expected, jwtService.computeRefreshTokenDigest("some-token"));
+        }
+        assertEquals(HexFormat.of().formatHex(expected), jwtService.computeRefreshTokenHash("some-token"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+    @Test
+    void submit_whenPoolAndQueueAreFull_rejectsImmediately() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordHasher hasher = new PasswordHasher(Mockito.mock(PasswordEncoder.class), 1, 1, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            hasher.submit(() -> await(release));
+            hasher.submit(() -> await(release));
+
+            assertThrows(ServiceBusyException.class, () -> hasher.submit(() -> "rejected"));
+            assertEquals(1.0, meterRegistry.get("executor.rejected").tag("name", "passwordHashing").counter().count());
+        } finally {
+            release.countDown();
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void encode_runsOnHashingPool() {
+        PasswordEncoder encoder = Mockito.mock(PasswordEncoder.class);
+        Mockito.when(encoder.encode("secret")).thenAnswer(invocation -> Thread.currentThread().getName());
+        PasswordHasher hasher = new PasswordHasher(encoder, 1, 1, new SimpleMeterRegistry());
+        try {
+            assertEquals("password-hash-0", hasher.encode("secret"));
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void matches_verifiesOnHashingPool() {
+        PasswordEncoder encoder = Mockito.mock(PasswordEncoder.class);
+        Mockito.when(encoder.matches("secret", "hash"))
+                .thenAnswer(invocation -> Thread.currentThread().getName().equals("password-hash-0"));
+        PasswordHasher hasher = new PasswordHasher(encoder, 1, 1, new SimpleMeterRegistry());
+        try {
+            assertTrue(hasher.matches("secret", "hash"));
+            assertFalse(hasher.matches("other", "hash"));
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAll_keepsInputOrderAndFallsBackToCallerWhenSaturated() throws Exception {
+        PasswordEncoder encoder = Mockito.mock(PasswordEncoder.class);
+        Mockito.when(encoder.encode(Mockito.anyString())).thenAnswer(invocation -> "hash:" + invocation.getArgument(0));
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHasher hasher = new PasswordHasher(encoder, 2, 1, new SimpleMeterRegistry());
+        try {
+            List<String> raw = IntStream.range(0, 7).mapToObj(i -> "p" + i).toList();
+            assertEquals(raw.stream().map(p -> "hash:" + p).toList(), hasher.encodeAll(raw));
+
+            // Both threads and the queue slot busy: every slice must be hashed by the caller
+            for (int i = 0; i < 2; i++) {
+                CountDownLatch running = new CountDownLatch(1);
+                hasher.submit(() -> {
+                    running.countDown();
+                    return await(release);
+                });
+                running.await(5, TimeUnit.SECONDS);
+            }
+            hasher.submit(() -> await(release));
+            assertEquals(List.of("hash:a", "hash:b", "hash:c"), hasher.encodeAll(List.of("a", "b", "c")));
+        } finally {
+            release.countDown();
+            hasher.shutdown();
+        }
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
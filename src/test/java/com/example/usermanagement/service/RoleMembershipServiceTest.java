@@ -0,0 +1,88 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.RoleMembershipChangeRequest;
+import com.example.usermanagement.dto.RoleMembershipChangeResponse;
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.exception.BatchTooLargeException;
+import com.example.usermanagement.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RoleMembershipServiceTest {
+
+    private final RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+    private final NamedParameterJdbcTemplate jdbcTemplate = Mockito.mock(NamedParameterJdbcTemplate.class);
+    private final UserDetailsCache userDetailsCache = Mockito.mock(UserDetailsCache.class);
+    private final RoleMembershipService service = new RoleMembershipService(roleRepository, jdbcTemplate,
+            new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), userDetailsCache, 2);
+
+    @BeforeEach
+    void setUp() {
+        Role auditor = new Role(); auditor.setId(3); auditor.setName("ROLE_AUDITOR");
+        Role user = new Role(); user.setId(1); user.setName("ROLE_USER");
+        Mockito.when(roleRepository.findById(3)).thenReturn(Optional.of(auditor));
+        Mockito.when(roleRepository.findByName("ROLE_USER")).thenReturn(Optional.of(user));
+    }
+
+    private List<SqlParameterSource> statements(String prefix) {
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        Mockito.verify(jdbcTemplate, Mockito.atLeastOnce()).update(Mockito.startsWith(prefix), params.capture());
+        return params.getAllValues();
+    }
+
+    @Test
+    void assign_byIds_runsOneInsertSelectPerChunkAndEvictsChangedChunks() {
+        Mockito.when(jdbcTemplate.update(Mockito.startsWith("INSERT IGNORE INTO user_roles"), Mockito.any(SqlParameterSource.class)))
+                .thenReturn(2, 0);
+
+        RoleMembershipChangeResponse response = service.assign(3, new RoleMembershipChangeRequest(List.of(10L, 11L, 10L, 12L), null));
+
+        assertEquals(new RoleMembershipChangeResponse(3, "ROLE_AUDITOR", 3, 2), response);
+        List<SqlParameterSource> chunks = statements("INSERT IGNORE INTO user_roles");
+        assertEquals(List.of(List.of(10L, 11L), List.of(12L)), chunks.stream().map(p -> p.getValue("userIds")).toList());
+        assertEquals(3, chunks.get(0).getValue("roleId"));
+        Mockito.verify(userDetailsCache).evictUsers(List.of(10L, 11L));
+        Mockito.verifyNoMoreInteractions(userDetailsCache);
+    }
+
+    @Test
+    void revoke_byRoleFilter_walksMembersByKeysetAndDeletesEachChunk() {
+        Mockito.when(jdbcTemplate.queryForList(Mockito.startsWith("SELECT user_id FROM user_roles"), Mockito.any(SqlParameterSource.class), Mockito.eq(Long.class)))
+                .thenReturn(List.of(10L, 11L), List.of(12L));
+        Mockito.when(jdbcTemplate.update(Mockito.startsWith("DELETE FROM user_roles"), Mockito.any(SqlParameterSource.class)))
+                .thenReturn(1, 1);
+
+        RoleMembershipChangeResponse response = service.revoke(3, new RoleMembershipChangeRequest(null, "ROLE_USER"));
+
+        assertEquals(new RoleMembershipChangeResponse(3, "ROLE_AUDITOR", 3, 2), response);
+        ArgumentCaptor<SqlParameterSource> seeks = ArgumentCaptor.forClass(SqlParameterSource.class);
+        Mockito.verify(jdbcTemplate, Mockito.times(2)).queryForList(Mockito.anyString(), seeks.capture(), Mockito.eq(Long.class));
+        assertEquals(List.of(0L, 11L), seeks.getAllValues().stream().map(p -> p.getValue("after")).toList());
+        assertEquals(1, seeks.getValue().getValue("roleId"));
+        assertEquals(List.of(List.of(10L, 11L), List.of(12L)),
+                statements("DELETE FROM user_roles").stream().map(p -> p.getValue("userIds")).toList());
+        Mockito.verify(userDetailsCache).evictUsers(List.of(10L, 11L));
+        Mockito.verify(userDetailsCache).evictUsers(List.of(12L));
+    }
+
+    @Test
+    void assign_withTooManyIds_isRejectedBeforeWriting() {
+        List<Long> ids = LongStream.rangeClosed(1, RoleMembershipService.MAX_USER_IDS + 1).boxed().toList();
+
+        assertThrows(BatchTooLargeException.class, () -> service.assign(3, new RoleMembershipChangeRequest(ids, null)));
+        Mockito.verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -1,18 +1,32 @@
 package com.example.usermanagement.service;
 
 import com.example.usermanagement.dto.CreatePermissionRequest;
+import com.example.usermanagement.dto.CursorPage;
 import com.example.usermanagement.dto.PermissionDto;
+import com.example.usermanagement.dto.RoleDetailDto;
+import com.example.usermanagement.dto.RoleDto;
+import com.example.usermanagement.dto.UpdateRolePermissionsRequest;
+import com.example.usermanagement.dto.UserDto;
 import com.example.usermanagement.entity.Permission;
+import com.example.usermanagement.entity.Role;
 import com.example.usermanagement.mapper.ApplicationMapper;
 import com.example.usermanagement.repository.PermissionRepository;
 import com.example.usermanagement.repository.RoleRepository;
+import com.example.usermanagement.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class RolePermissionServiceTest {
@@ -28,7 +42,8 @@ class RolePermissionServiceTest {
         Mockito.when(permRepo.save(Mockito.any())).thenReturn(saved);
         Mockito.when(mapper.toPermissionDto(saved)).thenReturn(new com.example.usermanagement.dto.PermissionDto(1, "CREATE_USER"));
 
-        RolePermissionService svc = new RolePermissionService(roleRepo, permRepo, mapper);
+        AuthorityGraph authorityGraph = Mockito.mock(AuthorityGraph.class);
+        RolePermissionService svc = new RolePermissionService(roleRepo, Mockito.mock(UserRepository.class), permRepo, mapper, authorityGraph, Mockito.mock(UserDetailsCache.class));
         PermissionDto dto = svc.createPermission(new CreatePermissionRequest("CREATE_USER"));
 
         assertEquals("CREATE_USER", dto.name());
@@ -43,7 +58,102 @@ class RolePermissionServiceTest {
         Mockito.doThrow(new DataIntegrityViolationException("fk"))
                 .when(permRepo).deleteById(1);
 
-        RolePermissionService svc = new RolePermissionService(roleRepo, permRepo, mapper);
+        AuthorityGraph authorityGraph = Mockito.mock(AuthorityGraph.class);
+        RolePermissionService svc = new RolePermissionService(roleRepo, Mockito.mock(UserRepository.class), permRepo, mapper, authorityGraph, Mockito.mock(UserDetailsCache.class));
         assertThrows(DataIntegrityViolationException.class, () -> svc.deletePermission(1));
     }
+
+    @Test
+    void updateRolePermissions_resolvesNamesInOneQueryAndKeepsUnchangedMembers() {
+        RoleRepository roleRepo = Mockito.mock(RoleRepository.class);
+        PermissionRepository permRepo = Mockito.mock(PermissionRepository.class);
+        AuthorityGraph authorityGraph = Mockito.mock(AuthorityGraph.class);
+        UserDetailsCache userDetailsCache = Mockito.mock(UserDetailsCache.class);
+
+        Permission read = permission(1, "READ_USER");
+        Permission write = permission(2, "WRITE_USER");
+        Permission delete = permission(3, "DELETE_USER");
+        Role role = new Role(); role.setId(7); role.setName("ROLE_ADMIN");
+        Set<Permission> current = new HashSet<>(Set.of(read, write));
+        role.setPermissions(current);
+        Mockito.when(roleRepo.findById(7)).thenReturn(Optional.of(role));
+        Mockito.when(roleRepo.save(role)).thenReturn(role);
+        Mockito.when(permRepo.findByNameIn(Mockito.anyCollection())).thenReturn(List.of(write, delete));
+
+        RolePermissionService svc = new RolePermissionService(roleRepo, Mockito.mock(UserRepository.class), permRepo, Mockito.mock(ApplicationMapper.class), authorityGraph, userDetailsCache);
+        svc.updateRolePermissions(7, new UpdateRolePermissionsRequest(Set.of("WRITE_USER", "DELETE_USER")));
+
+        assertSame(current, role.getPermissions());
+        assertEquals(Set.of(write, delete), role.getPermissions());
+        Mockito.verify(permRepo, Mockito.never()).findByName(Mockito.anyString());
+        Mockito.verify(authorityGraph).rebuildAfterCommit();
+        Mockito.verify(userDetailsCache).evictRole(7);
+    }
+
+    @Test
+    void updateRolePermissions_withUnknownName_failsBeforeChangingAnything() {
+        RoleRepository roleRepo = Mockito.mock(RoleRepository.class);
+        PermissionRepository permRepo = Mockito.mock(PermissionRepository.class);
+        AuthorityGraph authorityGraph = Mockito.mock(AuthorityGraph.class);
+
+        Permission read = permission(1, "READ_USER");
+        Role role = new Role(); role.setId(7); role.setName("ROLE_ADMIN");
+        role.setPermissions(new HashSet<>(Set.of(read)));
+        Mockito.when(roleRepo.findById(7)).thenReturn(Optional.of(role));
+        Mockito.when(permRepo.findByNameIn(Mockito.anyCollection())).thenReturn(List.of(read));
+
+        RolePermissionService svc = new RolePermissionService(roleRepo, Mockito.mock(UserRepository.class), permRepo, Mockito.mock(ApplicationMapper.class), authorityGraph, Mockito.mock(UserDetailsCache.class));
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> svc.updateRolePermissions(7, new UpdateRolePermissionsRequest(Set.of("read_user", "NO_SUCH_PERMISSION"))));
+
+        assertEquals("Permission not found: NO_SUCH_PERMISSION", e.getMessage());
+        assertEquals(Set.of(read), role.getPermissions());
+        Mockito.verifyNoInteractions(authorityGraph);
+    }
+
+    private static Permission permission(int id, String name) {
+        Permission permission = new Permission(); permission.setId(id); permission.setName(name);
+        return permission;
+    }
+
+    @Test
+    void getRoleDetailsById_returnsPermissionsAndMemberCountWithoutLoadingUsers() {
+        RoleRepository roleRepo = Mockito.mock(RoleRepository.class);
+        ApplicationMapper mapper = Mockito.mock(ApplicationMapper.class);
+        Role role = new Role(); role.setId(1); role.setName("ROLE_USER");
+        Mockito.when(roleRepo.findById(1)).thenReturn(Optional.of(role));
+        Mockito.when(roleRepo.countUsers(1)).thenReturn(50_000L);
+        Mockito.when(mapper.toRoleDto(role)).thenReturn(new RoleDto(1, "ROLE_USER", Set.of(new PermissionDto(4, "READ_USER"))));
+
+        RolePermissionService svc = new RolePermissionService(roleRepo, Mockito.mock(UserRepository.class), Mockito.mock(PermissionRepository.class),
+                mapper, Mockito.mock(AuthorityGraph.class), Mockito.mock(UserDetailsCache.class));
+        RoleDetailDto details = svc.getRoleDetailsById(1);
+
+        assertEquals(new RoleDetailDto(1, "ROLE_USER", Set.of(new PermissionDto(4, "READ_USER")), 50_000L), details);
+    }
+
+    @Test
+    void getRoleMembers_pagesByCursorAndRejectsUnknownRole() {
+        RoleRepository roleRepo = Mockito.mock(RoleRepository.class);
+        UserRepository userRepo = Mockito.mock(UserRepository.class);
+        Instant now = Instant.now();
+        Mockito.when(userRepo.findRoleMembersPage(Mockito.eq(1), Mockito.any()))
+                .thenReturn(List.of(new UserDto(3L, "a", now, now), new UserDto(8L, "b", now, now), new UserDto(9L, "c", now, now)));
+        Mockito.when(userRepo.findRoleMembersPageAfter(Mockito.eq(1), Mockito.eq(8L), Mockito.any()))
+                .thenReturn(List.of(new UserDto(9L, "c", now, now)));
+
+        RolePermissionService svc = new RolePermissionService(roleRepo, userRepo, Mockito.mock(PermissionRepository.class),
+                Mockito.mock(ApplicationMapper.class), Mockito.mock(AuthorityGraph.class), Mockito.mock(UserDetailsCache.class));
+
+        CursorPage<UserDto> first = svc.getRoleMembers(1, null, 2);
+        assertEquals(List.of(3L, 8L), first.items().stream().map(UserDto::id).toList());
+        Mockito.verify(userRepo).findRoleMembersPage(1, PageRequest.of(0, 3));
+
+        CursorPage<UserDto> second = svc.getRoleMembers(1, first.nextCursor(), 2);
+        assertEquals(List.of(9L), second.items().stream().map(UserDto::id).toList());
+        assertNull(second.nextCursor());
+
+        Mockito.when(roleRepo.existsById(42)).thenReturn(false);
+        assertThrows(RuntimeException.class, () -> svc.getRoleMembers(42, null, 20));
+    }
 }
@@ -0,0 +1,82 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.security.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UserDetailsCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserDetailsCache cache = new UserDetailsCache(true, 100, 300, meterRegistry);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, AuthenticatedUser> loader = username -> {
+        loads.incrementAndGet();
+        Set<Integer> roleIds = username.startsWith("admin") ? Set.of(1, 2) : Set.of(2);
+        return new AuthenticatedUser(1L, username, "hashed", List.of(), null, roleIds);
+    };
+
+    @Test
+    void get_servesRepeatedLookupsFromCacheAndRecordsMetrics() {
+        AuthenticatedUser first = cache.get("alice", loader);
+        AuthenticatedUser second = cache.get("alice", loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "userDetails").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void evict_removesOnlyAffectedEntries() {
+        cache.get("alice", loader);
+        cache.get("admin", loader);
+        cache.get("bob", loader);
+
+        cache.evictUser("alice");
+        cache.get("alice", loader);
+        cache.get("bob", loader);
+        assertEquals(4, loads.get());
+
+        cache.evictRole(1);
+        cache.get("admin", loader);
+        cache.get("bob", loader);
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void evictUsers_removesEntriesById() {
+        Function<String, AuthenticatedUser> byName = username -> {
+            loads.incrementAndGet();
+            return new AuthenticatedUser((long) username.length(), username, "hashed", List.of(), null, Set.of(2));
+        };
+        cache.get("al", byName);
+        cache.get("bob", byName);
+        cache.get("carol", byName);
+
+        cache.evictUsers(List.of(2L, 5L, 99L));
+        cache.get("al", byName);
+        cache.get("bob", byName);
+        cache.get("carol", byName);
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void get_doesNotCacheLoadThatOverlapsAnInvalidation() {
+        cache.get("alice", username -> {
+            cache.evictUser(username);
+            return loader.apply(username);
+        });
+        cache.get("alice", loader);
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.usermanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserExportServiceTest {
+
+    private static final Instant CREATED = Instant.parse("2024-05-01T10:00:00Z");
+
+    /**
+     * Feeds joined (user, role) rows to the writer the way the streaming query would.
+     */
+    private static UserExportService serviceReturning(Object[]... rows) {
+        return serviceFailingAfter(rows, null);
+    }
+
+    private static UserExportService serviceFailingAfter(Object[][] rows, RuntimeException failure) {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] row : rows) {
+                ResultSet rs = Mockito.mock(ResultSet.class);
+                Mockito.when(rs.getLong("id")).thenReturn((Long) row[0]);
+                Mockito.when(rs.getString("username")).thenReturn((String) row[1]);
+                Mockito.when(rs.getTimestamp("created_at")).thenReturn(Timestamp.from(CREATED));
+                Mockito.when(rs.getTimestamp("updated_at")).thenReturn(Timestamp.from(CREATED));
+                Mockito.when(rs.getString("role_name")).thenReturn((String) row[2]);
+                handler.processRow(rs);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        }).when(jdbcTemplate).query(Mockito.any(PreparedStatementCreator.class), Mockito.any(RowCallbackHandler.class));
+        return new UserExportService(jdbcTemplate, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void export_writesOneLinePerUserWithRoleNames() throws Exception {
+        UserExportService service = serviceReturning(
+                new Object[]{1L, "admin", "ROLE_ADMIN"},
+                new Object[]{1L, "admin", "ROLE_USER"},
+                new Object[]{2L, "alice", "ROLE_USER"},
+                new Object[]{3L, "bob", null});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(3, service.export(out, false));
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode admin = mapper.readTree(lines.get(0));
+        assertEquals("admin", admin.get("username").asText());
+        assertEquals("2024-05-01T10:00:00Z", admin.get("createdAt").asText());
+        assertEquals("[\"ROLE_ADMIN\",\"ROLE_USER\"]", admin.get("roles").toString());
+        assertEquals("{\"id\":3,\"username\":\"bob\",\"createdAt\":\"2024-05-01T10:00:00Z\",\"updatedAt\":\"2024-05-01T10:00:00Z\",\"roles\":[]}",
+                lines.get(2));
+    }
+
+    @Test
+    void export_whenQueryFailsMidway_leavesOutputVisiblyTruncated() {
+        Object[][] rows = {{1L, "admin", "ROLE_ADMIN"}, {2L, "alice", "ROLE_USER"}};
+        RuntimeException failure = new QueryTimeoutException("Statement cancelled");
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+
+        assertSame(failure, assertThrows(RuntimeException.class, () -> serviceFailingAfter(rows, failure).export(plain, false)));
+        assertSame(failure, assertThrows(RuntimeException.class, () -> serviceFailingAfter(rows, failure).export(gzipped, true)));
+
+        // alice's line was started but never closed
+        List<String> lines = plain.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        assertThrows(JsonProcessingException.class, () -> new ObjectMapper().readTree(lines.get(1)));
+        // No gzip trailer, so decompressing fails instead of yielding a shorter file
+        assertThrows(EOFException.class, () -> {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.toByteArray()))) {
+                in.readAllBytes();
+            }
+        });
+    }
+
+    @Test
+    void export_gzip_producesCompleteStream() throws Exception {
+        UserExportService service = serviceReturning(new Object[]{1L, "admin", "ROLE_ADMIN"});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.export(out, true);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(1, text.lines().count());
+        }
+    }
+}
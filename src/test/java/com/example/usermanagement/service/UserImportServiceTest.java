@@ -0,0 +1,128 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserImportReport;
+import com.example.usermanagement.entity.Role;
+import com.example.usermanagement.exception.InvalidImportException;
+import com.example.usermanagement.repository.RoleRepository;
+import com.example.usermanagement.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserImportServiceTest {
+
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    private final PasswordHasher passwordHasher = Mockito.mock(PasswordHasher.class);
+    private final NamedParameterJdbcTemplate jdbcTemplate = Mockito.mock(NamedParameterJdbcTemplate.class);
+    private final UserIdAllocator userIdAllocator = Mockito.mock(UserIdAllocator.class);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(passwordHasher.encodeAll(Mockito.anyList())).thenAnswer(invocation ->
+                invocation.<List<String>>getArgument(0).stream().map(raw -> "hash:" + raw).toList());
+        Mockito.when(userRepository.findExistingUsernames(Mockito.anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).stream()
+                        .filter(username -> username.startsWith("existing"))
+                        .collect(Collectors.toSet()));
+        AtomicLong nextId = new AtomicLong(100);
+        Mockito.when(userIdAllocator.allocate(Mockito.anyInt())).thenAnswer(invocation ->
+                LongStream.range(0, invocation.<Integer>getArgument(0)).map(i -> nextId.getAndIncrement()).toArray());
+    }
+
+    private UserImportService service(int chunkSize) {
+        RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+        Role role = new Role(); role.setId(1); role.setName("ROLE_USER");
+        Mockito.when(roleRepository.findByName("ROLE_USER")).thenReturn(Optional.of(role));
+        return new UserImportService(userRepository, roleRepository, passwordHasher, userIdAllocator, jdbcTemplate,
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), chunkSize,
+                new SimpleMeterRegistry());
+    }
+
+    private static InputStream body(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<List<Object>> inserted(String table, String column) {
+        ArgumentCaptor<SqlParameterSource[]> batches = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        Mockito.verify(jdbcTemplate, Mockito.atLeastOnce()).batchUpdate(Mockito.startsWith("INSERT INTO " + table + " "), batches.capture());
+        return batches.getAllValues().stream()
+                .map(batch -> Arrays.stream(batch).map(row -> row.getValue(column)).toList())
+                .toList();
+    }
+
+    @Test
+    void ndjson_insertsValidRowsInChunksAndReportsTheRest() throws Exception {
+        UserImportReport report = service(2).importUsers(body(
+                "{\"username\":\"alice\",\"password\":\"password1\"}",
+                "{\"username\":\"broken\"",
+                "{\"username\":\"bob\",\"password\":\"short\"}",
+                "",
+                "{\"username\":\"alice\",\"password\":\"password2\"}",
+                "{\"username\":\"carol\",\"password\":\"password3\"}",
+                "{\"username\":\"existing-dave\",\"password\":\"password4\"}",
+                "{\"username\":\"erin\",\"password\":\"password5\"}"
+        ), ImportFormat.NDJSON);
+
+        assertEquals(7, report.rows());
+        assertEquals(3, report.imported());
+        assertEquals(4, report.failed());
+        assertEquals(List.of(2L, 3L, 5L, 7L), report.errors().stream().map(UserImportReport.RowError::line).toList());
+        assertEquals("Duplicate username in import", report.errors().get(2).message());
+        assertEquals("Username already exists", report.errors().get(3).message());
+        assertEquals(List.of(List.of("alice", "carol"), List.of("erin")), inserted("users", "username"));
+        assertEquals(List.of(List.of(100L, 101L), List.of(102L)), inserted("users", "id"));
+        assertEquals(List.of(List.of(100L, 101L), List.of(102L)), inserted("user_roles", "userId"));
+    }
+
+    @Test
+    void csv_readsHeaderAndQuotedFields_andIsolatesRowsThatClashOnInsert() throws Exception {
+        Mockito.when(jdbcTemplate.batchUpdate(Mockito.startsWith("INSERT INTO users "), Mockito.any(SqlParameterSource[].class)))
+                .thenThrow(new DuplicateKeyException("Duplicate entry 'Frank'"))
+                .thenReturn(new int[]{1})
+                .thenThrow(new DuplicateKeyException("Duplicate entry 'Frank'"));
+
+        UserImportReport report = service(10).importUsers(body(
+                "password,username",
+                "\"pass,word\"\"1\",grace",
+                "password2,frank"
+        ), ImportFormat.CSV);
+
+        assertEquals(2, report.rows());
+        assertEquals(1, report.imported());
+        assertEquals(List.of(new UserImportReport.RowError(3, "frank", "Username already exists")), report.errors());
+        Mockito.verify(passwordHasher).encodeAll(List.of("pass,word\"1", "password2"));
+        assertEquals(List.of(List.of("grace", "frank"), List.of("grace"), List.of("frank")), inserted("users", "username"));
+        assertEquals(List.of(List.of(100L)), inserted("user_roles", "userId"));
+    }
+
+    @Test
+    void csv_withoutUsernameColumn_isRejected() {
+        assertThrows(InvalidImportException.class, () -> service(10).importUsers(body("user,password", "a,b"), ImportFormat.CSV));
+        Mockito.verifyNoInteractions(jdbcTemplate);
+        Mockito.verify(passwordHasher, Mockito.never()).encodeAll(Mockito.anyList());
+    }
+}
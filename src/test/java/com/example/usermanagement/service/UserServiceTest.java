@@ -1,30 +1,49 @@
 package com.example.usermanagement.service;
 
 import com.example.usermanagement.dto.CreateUserRequest;
+import com.example.usermanagement.dto.CursorPage;
+import com.example.usermanagement.dto.UpdateUserRolesRequest;
 import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.dto.UserLookupResult;
 import com.example.usermanagement.entity.Role;
 import com.example.usermanagement.entity.User;
+import com.example.usermanagement.exception.InvalidCursorException;
+import com.example.usermanagement.exception.InvalidFilterException;
 import com.example.usermanagement.mapper.ApplicationMapper;
+import com.example.usermanagement.mapper.ApplicationMapperImpl;
 import com.example.usermanagement.repository.RoleRepository;
+import com.example.usermanagement.repository.UserFilter;
 import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserSearchRepository;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class UserServiceTest {
 
     @Test
     void createUser_assignsRoleAndReturnsDto() {
         UserRepository userRepository = Mockito.mock(UserRepository.class);
-        PasswordEncoder passwordEncoder = Mockito.mock(PasswordEncoder.class);
+        PasswordHasher passwordHasher = Mockito.mock(PasswordHasher.class);
         RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
         ApplicationMapper mapper = Mockito.mock(ApplicationMapper.class);
 
-        Mockito.when(passwordEncoder.encode("password")).thenReturn("hashed");
+        Mockito.when(passwordHasher.encode("password")).thenReturn("hashed");
 
         Role role = new Role(); role.setId(1); role.setName("ROLE_USER");
         Mockito.when(roleRepository.findByName("ROLE_USER")).thenReturn(Optional.of(role));
@@ -35,10 +54,133 @@ class UserServiceTest {
         UserDto dto = new UserDto(1L, "testuser", java.time.Instant.now(), java.time.Instant.now());
         Mockito.when(mapper.toUserDto(saved)).thenReturn(dto);
 
-        UserService svc = new UserService(userRepository, passwordEncoder, roleRepository, mapper);
+        UserService svc = new UserService(userRepository, passwordHasher, roleRepository, mapper, Mockito.mock(UserDetailsCache.class),
+                Mockito.mock(AuthorityGraph.class),
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), Mockito.mock(UserSearchRepository.class));
         UserDto res = svc.createUser(new CreateUserRequest("testuser", "password"));
 
         assertEquals("testuser", res.username());
         assertEquals(1L, res.id());
     }
+
+    @Test
+    void getUsersAfter_seeksPastCursorAndReportsNextPage() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        UserService svc = new UserService(userRepository, Mockito.mock(PasswordHasher.class), Mockito.mock(RoleRepository.class),
+                Mockito.mock(ApplicationMapper.class), Mockito.mock(UserDetailsCache.class),
+                Mockito.mock(AuthorityGraph.class),
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), Mockito.mock(UserSearchRepository.class));
+
+        Instant t = Instant.parse("2024-05-01T10:00:00Z");
+        UserDto a = new UserDto(7L, "a", t, t);
+        UserDto b = new UserDto(3L, "b", t.plusSeconds(1), t);
+        UserDto c = new UserDto(9L, "c", t.plusSeconds(2), t);
+        Mockito.when(userRepository.findPageOrderByCreatedAt(PageRequest.of(0, 3))).thenReturn(List.of(a, b, c));
+        Mockito.when(userRepository.findPageOrderByCreatedAtAfter(t.plusSeconds(1), 3L, PageRequest.of(0, 3))).thenReturn(List.of(c));
+
+        CursorPage<UserDto> first = svc.getUsersAfter(null, 2, UserSortOrder.CREATED_AT, UserFilter.NONE);
+        assertEquals(List.of(a, b), first.items());
+        assertNotNull(first.nextCursor());
+
+        CursorPage<UserDto> second = svc.getUsersAfter(first.nextCursor(), 2, UserSortOrder.CREATED_AT, UserFilter.NONE);
+        assertEquals(List.of(c), second.items());
+        assertNull(second.nextCursor());
+
+        // A cursor only makes sense for the order it was issued for
+        assertThrows(InvalidCursorException.class, () -> svc.getUsersAfter(first.nextCursor(), 2, UserSortOrder.ID, UserFilter.NONE));
+        assertThrows(InvalidCursorException.class, () -> svc.getUsersAfter("not-a-cursor", 2, UserSortOrder.ID, UserFilter.NONE));
+    }
+
+    @Test
+    void getUsersByIds_chunksLookupsAndKeepsRequestOrder() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        AuthorityGraph authorityGraph = Mockito.mock(AuthorityGraph.class);
+        ApplicationMapper mapper = new ApplicationMapperImpl();
+        Role role = new Role(); role.setId(1); role.setName("ROLE_USER");
+        Mockito.when(authorityGraph.current()).thenReturn(new AuthoritySnapshot(1, List.of(role), List.of(),
+                List.of(mapper.toRoleDto(role)), List.of()));
+
+        List<Long> ids = new java.util.ArrayList<>();
+        for (long id = UserService.BATCH_CHUNK_SIZE + 10; id > 0; id--) {
+            ids.add(id);
+        }
+        ids.add(3L);
+        ids.add(-1L);
+        Mockito.when(userRepository.findWithRolesByIdIn(Mockito.anyCollection())).thenAnswer(invocation -> {
+            java.util.Collection<Long> chunk = invocation.getArgument(0);
+            return chunk.stream().filter(id -> id > 0).map(id -> {
+                User user = new User("user" + id, "x"); user.setId(id); user.setRoles(Set.of(role));
+                return user;
+            }).toList();
+        });
+
+        UserService svc = new UserService(userRepository, Mockito.mock(PasswordHasher.class), Mockito.mock(RoleRepository.class),
+                mapper, Mockito.mock(UserDetailsCache.class), authorityGraph,
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), Mockito.mock(UserSearchRepository.class));
+        List<UserLookupResult> results = svc.getUsersByIds(ids);
+
+        Mockito.verify(userRepository, Mockito.times(2)).findWithRolesByIdIn(Mockito.anyCollection());
+        assertEquals(ids, results.stream().map(UserLookupResult::id).toList());
+        assertEquals("user" + (UserService.BATCH_CHUNK_SIZE + 10), results.get(0).user().username());
+        assertEquals("ROLE_USER", results.get(0).user().roles().iterator().next().name());
+        assertEquals("user3", results.get(ids.size() - 2).user().username());
+        assertFalse(results.get(ids.size() - 1).found());
+        assertNull(results.get(ids.size() - 1).user());
+    }
+
+    @Test
+    void updateUserRoles_onlyAddsAndRemovesChangedRoles() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+        UserDetailsCache userDetailsCache = Mockito.mock(UserDetailsCache.class);
+
+        Role user = new Role(); user.setId(1); user.setName("ROLE_USER");
+        Role admin = new Role(); admin.setId(2); admin.setName("ROLE_ADMIN");
+        Role auditor = new Role(); auditor.setId(3); auditor.setName("ROLE_AUDITOR");
+        User alice = new User("alice", "hash"); alice.setId(5L);
+        Set<Role> current = new HashSet<>(Set.of(user, admin));
+        alice.setRoles(current);
+        Mockito.when(userRepository.findById(5L)).thenReturn(Optional.of(alice));
+        Mockito.when(roleRepository.findByNameIn(Mockito.anyCollection())).thenReturn(List.of(user, auditor));
+
+        UserService svc = new UserService(userRepository, Mockito.mock(PasswordHasher.class), roleRepository, Mockito.mock(ApplicationMapper.class),
+                userDetailsCache, Mockito.mock(AuthorityGraph.class), new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), Mockito.mock(UserSearchRepository.class));
+        svc.updateUserRoles(5L, new UpdateUserRolesRequest(Set.of("ROLE_USER", "ROLE_AUDITOR")));
+
+        assertSame(current, alice.getRoles());
+        assertEquals(Set.of(user, auditor), alice.getRoles());
+        Mockito.verify(roleRepository, Mockito.never()).findByName(Mockito.anyString());
+        Mockito.verify(userDetailsCache).evictUser("alice");
+
+        Mockito.when(roleRepository.findByNameIn(Mockito.anyCollection())).thenReturn(List.of(user));
+        assertThrows(RuntimeException.class,
+                () -> svc.updateUserRoles(5L, new UpdateUserRolesRequest(Set.of("ROLE_USER", "ROLE_MISSING"))));
+        assertEquals(Set.of(user, auditor), alice.getRoles());
+    }
+
+    @Test
+    void getUsersAfter_withFilter_queriesSearchRepositoryPastCursor() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        UserSearchRepository searchRepository = Mockito.mock(UserSearchRepository.class);
+        UserService svc = new UserService(userRepository, Mockito.mock(PasswordHasher.class), Mockito.mock(RoleRepository.class),
+                Mockito.mock(ApplicationMapper.class), Mockito.mock(UserDetailsCache.class), Mockito.mock(AuthorityGraph.class),
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), searchRepository);
+        Instant t = Instant.parse("2024-01-01T00:00:00Z");
+        UserDto a = new UserDto(4L, "ann", t, t);
+        UserDto b = new UserDto(9L, "anna", t, t);
+        UserFilter filter = new UserFilter("ROLE_ADMIN", null, "an", null, null);
+        Mockito.when(searchRepository.findPage(filter, UserSortOrder.ID, null, null, 2)).thenReturn(List.of(a, b));
+        Mockito.when(searchRepository.findPage(filter, UserSortOrder.ID, null, 4L, 2)).thenReturn(List.of(b));
+
+        CursorPage<UserDto> first = svc.getUsersAfter(null, 1, UserSortOrder.ID, filter);
+        CursorPage<UserDto> second = svc.getUsersAfter(first.nextCursor(), 1, UserSortOrder.ID, filter);
+
+        assertEquals(List.of(a), first.items());
+        assertEquals(List.of(b), second.items());
+        assertNull(second.nextCursor());
+        Mockito.verifyNoInteractions(userRepository);
+        assertThrows(InvalidFilterException.class, () -> svc.getUsersAfter(null, 1, UserSortOrder.ID,
+                new UserFilter(null, null, null, t, t)));
+        assertThrows(InvalidFilterException.class, () -> svc.getAllUsers(PageRequest.of(0, 10), filter));
+    }
 }